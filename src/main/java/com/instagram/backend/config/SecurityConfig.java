@@ -40,6 +40,7 @@ public class SecurityConfig {
             "/auth/**",
             "/ws-notifications/**",
             "/ws-chat/**",
+            "/ws-binary",
             "/v3/api-docs/**",          // OpenAPI docs
             "/swagger-ui/**",           // Swagger UI
             "/swagger-ui.html",         // Swagger UI HTML
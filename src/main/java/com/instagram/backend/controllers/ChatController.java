@@ -1,6 +1,10 @@
 package com.instagram.backend.controllers;
 
 import com.instagram.backend.dtos.response.ChatMessageResponseDTO;
+import com.instagram.backend.dtos.response.ChatReceiptResponseDTO;
+import com.instagram.backend.dtos.response.ChatSearchHitDTO;
+import com.instagram.backend.dtos.response.ConversationResponseDTO;
+import com.instagram.backend.dtos.response.CursorPageResponse;
 import com.instagram.backend.entity.enums.MessageStatus;
 import com.instagram.backend.service.ChatService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,8 +16,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Tag(name = "Chat APIs")
 @RestController
 @RequestMapping("/chat")
@@ -39,14 +41,42 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(
+            summary = "Get conversation inbox",
+            description = "Lists the current user's conversations with their last message and unread count, most recent first"
+    )
+    @GetMapping("/inbox")
+    public ResponseEntity<CursorPageResponse<ConversationResponseDTO>> getInbox(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        log.info("Fetching chat inbox (cursor={}, limit={})", cursor, limit);
+        return ResponseEntity.ok(chatService.getInbox(cursor, limit));
+    }
+
+    @Operation(
+            summary = "Search chat messages",
+            description = "Full-text search over messages in the current user's chat rooms, best matches first"
+    )
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageResponse<ChatSearchHitDTO>> searchMessages(
+            @RequestParam("q") String query,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        log.info("Searching chat messages (cursor={}, limit={})", cursor, limit);
+        return ResponseEntity.ok(chatService.searchMessages(query, cursor, limit));
+    }
+
     @Operation(
             summary = "Get messages by chat room",
-            description = "Fetches all chat messages from the specified chat room"
+            description = "Fetches chat messages from the specified chat room, newest first. Pass the returned cursor as 'before' to load older messages"
     )
     @GetMapping("/{chatRoomId}/messages")
-    public ResponseEntity<List<ChatMessageResponseDTO>> getMessages(@PathVariable Long chatRoomId) {
-        log.info("Fetching messages for chat room ID: {}", chatRoomId);
-        return ResponseEntity.ok(chatService.getMessagesByChatRoom(chatRoomId));
+    public ResponseEntity<CursorPageResponse<ChatMessageResponseDTO>> getMessages(
+            @PathVariable Long chatRoomId,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        log.info("Fetching messages for chat room ID: {} (before={}, limit={})", chatRoomId, before, limit);
+        return ResponseEntity.ok(chatService.getMessagesByChatRoom(chatRoomId, before, limit));
     }
 
     @Operation(
@@ -61,4 +91,26 @@ public class ChatController {
         ChatMessageResponseDTO updated = chatService.updateMessageStatus(messageId, status);
         return ResponseEntity.ok(updated);
     }
+
+    @Operation(
+            summary = "Mark messages up to a message",
+            description = "Marks every message received in the chat room up to the given message as DELIVERED or SEEN and broadcasts one receipt"
+    )
+    @PutMapping("/{chatRoomId}/receipts")
+    public ResponseEntity<ChatReceiptResponseDTO> markMessagesUpTo(
+            @PathVariable Long chatRoomId,
+            @RequestParam("upTo") Long upToMessageId,
+            @RequestParam MessageStatus status) {
+        log.info("Marking messages in chat room {} up to {} as {}", chatRoomId, upToMessageId, status);
+        return ResponseEntity.ok(chatService.markMessagesUpTo(chatRoomId, upToMessageId, status));
+    }
+
+    @Operation(
+            summary = "Get unread message count",
+            description = "Returns how many messages the current user has not seen in the chat room"
+    )
+    @GetMapping("/{chatRoomId}/unread-count")
+    public ResponseEntity<Long> getUnreadCount(@PathVariable Long chatRoomId) {
+        return ResponseEntity.ok(chatService.countUnreadMessages(chatRoomId));
+    }
 }
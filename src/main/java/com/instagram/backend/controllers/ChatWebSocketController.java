@@ -1,22 +1,42 @@
 package com.instagram.backend.controllers;
 
 import com.instagram.backend.dtos.request.ChatMessageRequestDTO;
+import com.instagram.backend.dtos.request.TypingSignalDTO;
 import com.instagram.backend.dtos.response.ChatMessageResponseDTO;
 import com.instagram.backend.service.ChatService;
+import com.instagram.backend.websocket.ClusterMessagingTemplate;
+import com.instagram.backend.websocket.TypingIndicatorService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
+
 @Slf4j
 @Controller
 @RequiredArgsConstructor
 public class ChatWebSocketController {
 
     private final ChatService chatService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+    private final TypingIndicatorService typingIndicatorService;
+
+    private Timer sendTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        // count/s of this timer is the send throughput, its percentiles the per-frame cost
+        sendTimer = Timer.builder("chat.message.send")
+                .description("Time to persist and broadcast one chat message")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
 
     /**
      * Handles incoming chat messages from clients over WebSocket.
@@ -24,22 +44,46 @@ public class ChatWebSocketController {
      */
     @MessageMapping("/chat.sendMessage") // Full path: /app/chat.sendMessage
     public void handleChatMessage(@Payload ChatMessageRequestDTO messageRequest) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             if (messageRequest == null || messageRequest.getContent() == null || messageRequest.getContent().trim().isEmpty()) {
                 log.warn("Received empty or null chat message, ignoring.");
                 return;
             }
 
-            // Save message and get full DTO back
-            ChatMessageResponseDTO savedMessage = chatService.sendMessage(messageRequest);
+            // Broadcast only once the message is durable; with group commit that is when its batch commits
+            chatService.sendMessageAsync(messageRequest).whenComplete((savedMessage, error) -> {
+                sample.stop(sendTimer);
+                if (error != null) {
+                    log.error("Failed to send message: {}", error.getMessage(), error);
+                    return;
+                }
 
-            // Broadcast to the chat topic specific to this chat room
-            String destination = "/queue/chat/" + savedMessage.getChatRoomId();
-            messagingTemplate.convertAndSend(destination, savedMessage);
+                // Broadcast to the chat topic specific to this chat room
+                String destination = "/queue/chat/" + savedMessage.getChatRoomId();
+                messagingTemplate.convertAndSend(destination, savedMessage);
 
-            log.info("Sent message to chat room {}: {}", savedMessage.getChatRoomId(), savedMessage.getContent());
+                log.debug("Sent message to chat room {}: {}", savedMessage.getChatRoomId(), savedMessage.getContent());
+            });
         } catch (Exception e) {
+            sample.stop(sendTimer);
             log.error("Failed to send message: {}", e.getMessage(), e);
         }
     }
+
+    /**
+     * Ephemeral typing signal (Full path: /app/chat.typing). Never persisted; coalesced into at most one
+     * push per room per interval on /queue/chat/{roomId}/typing.
+     */
+    @MessageMapping("/chat.typing")
+    public void handleTyping(@Payload TypingSignalDTO signal, Principal principal) {
+        if (signal == null || signal.getChatRoomId() == null || principal == null) {
+            return;
+        }
+        try {
+            typingIndicatorService.signal(signal.getChatRoomId(), Long.valueOf(principal.getName()), signal.isTyping());
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring typing signal from unauthenticated session");
+        }
+    }
 }
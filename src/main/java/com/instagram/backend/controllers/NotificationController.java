@@ -1,7 +1,9 @@
 package com.instagram.backend.controllers;
 
 import com.instagram.backend.dtos.response.ApiResponse;
+import com.instagram.backend.dtos.response.CursorPageResponse;
 import com.instagram.backend.dtos.response.NotificationResponse;
+import com.instagram.backend.dtos.response.NotificationSummaryResponse;
 import com.instagram.backend.websocket.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -11,8 +13,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -28,11 +32,14 @@ public class NotificationController {
 
     private final NotificationService notificationService;
 
-    @Operation(summary = "Get all notifications", description = "Fetches all notifications for the logged-in user")
+    @Operation(summary = "Get notifications", description = "Fetches the logged-in user's notifications newest first. Pass the returned nextCursor to load older ones.")
     @GetMapping
-    public ResponseEntity<ApiResponse<List<NotificationResponse>>> getAll() {
-        log.info("Fetching all notifications for current user");
-        return ResponseEntity.ok(notificationService.getNotificationsForUser());
+    public ResponseEntity<ApiResponse<CursorPageResponse<NotificationResponse>>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        log.info("Fetching notifications for current user. cursor={}, limit={}", cursor, limit);
+        return ResponseEntity.ok(notificationService.getNotificationsForUser(cursor, limit));
     }
 
     @Operation(summary = "Mark all notifications as read", description = "Marks all unread notifications for the logged-in user as read")
@@ -42,10 +49,24 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.markAllAsRead());
     }
 
+    @Operation(summary = "Mark a notification as read", description = "Marks a single notification of the logged-in user as read")
+    @PostMapping("/{notificationId}/read")
+    public ResponseEntity<ApiResponse<String>> markAsRead(@PathVariable Long notificationId) {
+        log.info("Marking notification {} as read", notificationId);
+        return ResponseEntity.ok(notificationService.markAsRead(notificationId));
+    }
+
     @Operation(summary = "Get unread notification count", description = "Returns the number of unread notifications for the logged-in user")
     @GetMapping("/unread-count")
     public ResponseEntity<ApiResponse<Long>> unreadCount() {
         log.info("Counting unread notifications for current user");
         return ResponseEntity.ok(notificationService.countUnreadNotifications());
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Get notification history summaries", description = "Returns monthly per-type counts of the logged-in user's older read notifications, which are no longer listed individually")
+    @GetMapping("/summaries")
+    public ResponseEntity<ApiResponse<List<NotificationSummaryResponse>>> summaries() {
+        log.info("Fetching notification summaries for current user");
+        return ResponseEntity.ok(notificationService.getNotificationSummaries());
+    }
+}
@@ -0,0 +1,61 @@
+package com.instagram.backend.controllers;
+
+import com.instagram.backend.dtos.request.NotificationReplayRequest;
+import com.instagram.backend.websocket.NotificationService;
+import com.instagram.backend.websocket.WebSocketListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.Map;
+
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+public class NotificationWebSocketController {
+
+    private final NotificationService notificationService;
+
+    /**
+     * Sends the notifications missed since the client's last seen id to this session only
+     * (Full path: /app/notifications.replay). Clients send it after subscribing to
+     * /user/queue/notifications/replay; frames of a session are handled in order, so the subscription is
+     * always registered before the replay is pushed.
+     */
+    @MessageMapping("/notifications.replay")
+    public void handleReplay(@Payload(required = false) NotificationReplayRequest request,
+                             Principal principal,
+                             SimpMessageHeaderAccessor accessor) {
+        if (principal == null) {
+            return;
+        }
+
+        Object lastNotificationId = request != null && request.getLastNotificationId() != null
+                ? request.getLastNotificationId()
+                : connectHeaderValue(accessor.getSessionAttributes());
+        if (lastNotificationId == null) {
+            return;
+        }
+
+        try {
+            notificationService.replayMissedNotifications(
+                    Long.valueOf(principal.getName()),
+                    Long.valueOf(lastNotificationId.toString()),
+                    accessor.getSessionId()
+            );
+        } catch (NumberFormatException e) {
+            log.warn("Invalid last notification id on session {}: {}", accessor.getSessionId(), lastNotificationId);
+        } catch (Exception e) {
+            log.error("Failed to replay missed notifications for session {}: {}", accessor.getSessionId(), e.getMessage(), e);
+        }
+    }
+
+    // The CONNECT header is only honoured once per session, so a second replay request cannot repeat it
+    private Object connectHeaderValue(Map<String, Object> sessionAttributes) {
+        return sessionAttributes != null ? sessionAttributes.remove(WebSocketListener.LAST_NOTIFICATION_ID_HEADER) : null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.instagram.backend.controllers;
+
+import com.instagram.backend.dtos.response.ApiResponse;
+import com.instagram.backend.dtos.response.PresenceResponse;
+import com.instagram.backend.exception.TooManyIdsException;
+import com.instagram.backend.websocket.OnlineUserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(name = "Presence APIs")
+@RestController
+@RequestMapping("/presence")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasRole('USER')")
+@SecurityRequirement(name = "bearerAuth")
+public class PresenceController {
+
+    private static final int MAX_IDS = 200;
+
+    private final OnlineUserService onlineUserService;
+
+    @Operation(summary = "Get presence of users", description = "Returns online status and last-seen time of up to 200 users in one call")
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<PresenceResponse>>> getPresence(@RequestParam("ids") List<Long> userIds) {
+        if (userIds.size() > MAX_IDS) {
+            throw new TooManyIdsException("At most " + MAX_IDS + " user ids can be queried at once");
+        }
+        log.debug("Fetching presence of {} users", userIds.size());
+        return ResponseEntity.ok(ApiResponse.success(onlineUserService.getPresence(userIds), "Presence fetched successfully"));
+    }
+}
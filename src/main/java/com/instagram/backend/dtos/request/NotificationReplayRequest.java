@@ -0,0 +1,11 @@
+package com.instagram.backend.dtos.request;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class NotificationReplayRequest {
+    // Newest notification the client has already seen; falls back to the last-notification-id CONNECT header
+    private Long lastNotificationId;
+}
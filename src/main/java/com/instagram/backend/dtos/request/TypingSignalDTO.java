@@ -0,0 +1,15 @@
+package com.instagram.backend.dtos.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class TypingSignalDTO {
+    @NotNull(message = "Chat room ID cannot be null")
+    private Long chatRoomId;
+
+    // false when the user stopped typing or cleared the input
+    private boolean typing = true;
+}
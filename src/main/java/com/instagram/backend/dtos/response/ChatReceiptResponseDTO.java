@@ -0,0 +1,18 @@
+package com.instagram.backend.dtos.response;
+
+import com.instagram.backend.entity.enums.MessageStatus;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Range receipt: every message up to {@code upToMessageId} that {@code userId} received in the room has {@code status}.
+ */
+@Data
+@Builder
+public class ChatReceiptResponseDTO {
+    private Long chatRoomId;
+    private Long userId;
+    private MessageStatus status;
+    private Long upToMessageId;
+    private int updatedCount;
+}
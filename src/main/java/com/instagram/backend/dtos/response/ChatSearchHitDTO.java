@@ -0,0 +1,17 @@
+package com.instagram.backend.dtos.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ChatSearchHitDTO {
+    private Long messageId;
+    private Long chatRoomId;
+    private Long senderId;
+    private String content;
+    private LocalDateTime sentAt;
+    private float rank;
+}
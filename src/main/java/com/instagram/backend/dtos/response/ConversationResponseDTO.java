@@ -0,0 +1,18 @@
+package com.instagram.backend.dtos.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class ConversationResponseDTO {
+    private Long chatRoomId;
+    private UserDto otherUser;
+    private Long lastMessageId;
+    private Long lastSenderId;
+    private String lastMessageSnippet;
+    private LocalDateTime lastMessageAt;
+    private int unreadCount;
+}
@@ -0,0 +1,19 @@
+package com.instagram.backend.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> items;
+    // Pass back as the cursor to fetch the next page, null when there are no more items
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.instagram.backend.dtos.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class NotificationReplayResponse {
+    // Notifications missed since the last seen one, oldest first
+    private List<NotificationResponse> notifications;
+    // True when more were missed than fit in one frame; the client should refetch the inbox over REST
+    private boolean truncated;
+    private long unreadCount;
+}
@@ -5,14 +5,19 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Builder
 public class NotificationResponse {
     private Long id;
+    private Long senderId;
     private String senderUsername;
     private String message;
     private NotificationType type;
     private LocalDateTime createdAt;
     private boolean isRead;
+    private Long targetId;
+    private int actorCount;
+    private List<String> latestActors;
 }
@@ -0,0 +1,17 @@
+package com.instagram.backend.dtos.response;
+
+import com.instagram.backend.entity.enums.NotificationType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class NotificationSummaryResponse {
+    // First day of the month the compacted notifications were created in
+    private LocalDate month;
+    private NotificationType type;
+    private long notificationCount;
+    private long actorCount;
+}
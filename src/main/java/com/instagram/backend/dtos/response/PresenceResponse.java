@@ -0,0 +1,15 @@
+package com.instagram.backend.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class PresenceResponse {
+    private Long userId;
+    private boolean online;
+    // When the user's last session closed; null while online or if never seen
+    private LocalDateTime lastSeenAt;
+}
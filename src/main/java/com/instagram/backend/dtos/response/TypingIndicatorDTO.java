@@ -0,0 +1,14 @@
+package com.instagram.backend.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+public class TypingIndicatorDTO {
+    private Long chatRoomId;
+    // Participants currently typing; empty once everyone stopped or their signal expired
+    private Set<Long> typingUserIds;
+}
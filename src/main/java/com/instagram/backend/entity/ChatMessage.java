@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 @Table(
         name = "chat_messages",
         indexes = {
-                @Index(name = "idx_chat_room_id", columnList = "chat_room_id"),
+                @Index(name = "idx_chat_messages_room_sent_id", columnList = "chat_room_id, sentAt DESC, id DESC"),
                 @Index(name = "idx_sender_id", columnList = "sender_id"),
                 @Index(name = "idx_receiver_id", columnList = "receiver_id"),
                 @Index(name = "idx_sent_at", columnList = "sentAt"),
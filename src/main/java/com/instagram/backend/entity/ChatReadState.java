@@ -0,0 +1,48 @@
+package com.instagram.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-participant receipt watermarks of a chat room. unreadCount is kept up to date by a trigger on
+ * chat_messages inserts and decremented when messages are marked seen, so reading it is a single row lookup.
+ */
+@Entity
+@Table(
+        name = "chat_read_states",
+        uniqueConstraints = @UniqueConstraint(name = "uk_chat_read_states_room_user", columnNames = {"chat_room_id", "user_id"}),
+        indexes = @Index(name = "idx_chat_read_states_inbox", columnList = "user_id, last_message_at DESC, chat_room_id DESC")
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatReadState {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "chat_room_id", nullable = false)
+    private ChatRoom chatRoom;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Highest message id received by this user that is delivered / seen
+    @Column(nullable = false)
+    private long deliveredUntilId;
+
+    @Column(nullable = false)
+    private long seenUntilId;
+
+    @Column(nullable = false)
+    private int unreadCount;
+
+    // Copy of the room's last message time, so the inbox is one index range scan per user
+    private LocalDateTime lastMessageAt;
+}
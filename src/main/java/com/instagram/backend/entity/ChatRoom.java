@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -37,6 +38,16 @@ public class ChatRoom {
     @JoinColumn(name = "user_two_id", nullable = false)
     private User userTwo;
 
+    // Summary of the latest message, maintained by a trigger on chat_messages inserts (V9)
+    private Long lastMessageId;
+
+    private Long lastSenderId;
+
+    @Column(length = 200)
+    private String lastMessageSnippet;
+
+    private LocalDateTime lastMessageAt;
+
     // Messages in this chat room (1:1)
     @OneToMany(mappedBy = "chatRoom", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @Builder.Default
@@ -8,14 +8,13 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+// Range partitioned by month on created_at, see V5 migration and NotificationPartitionManager
 @Entity
 @Table(
         name = "notifications",
         indexes = {
-                @Index(name = "idx_recipient_id", columnList = "recipient_id"),
-                @Index(name = "idx_sender_id", columnList = "sender_id"),
-                @Index(name = "idx_created_at", columnList = "createdAt"),
-                @Index(name = "idx_is_read", columnList = "isRead")
+                @Index(name = "idx_notifications_sender_id", columnList = "sender_id"),
+                @Index(name = "idx_notifications_recipient_created_id", columnList = "recipient_id, createdAt DESC, id DESC")
         }
 )
 @Data
@@ -28,8 +27,6 @@ public class Notification {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String message;
-
     private boolean isRead = false;
 
     private LocalDateTime createdAt;
@@ -37,11 +34,21 @@ public class Notification {
     @Enumerated(EnumType.STRING)
     private com.instagram.backend.entity.enums.NotificationType type;
 
-    @ManyToOne
+    // Post the notification refers to, null for user-level events like FOLLOW
+    private Long targetId;
+
+    // Number of actors coalesced into this row ("alice and 41 others liked your post")
+    @Builder.Default
+    private int actorCount = 1;
+
+    // Comma separated IDs of the most recent actors, newest first. Text is rendered from templates at read time
+    private String latestActorIds;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recipient_id")
     private User recipient;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id")
     private User sender;
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
@@ -61,4 +62,12 @@ public class User {
 
     @Column
     private Instant otpExpiry;
+
+    // Notifications created at or before this instant count as read, see NotificationServiceImpl#markAllAsRead
+    @Column
+    private LocalDateTime notificationsReadUntil;
+
+    // When the user's last WebSocket session closed, see OnlineUserService
+    @Column
+    private LocalDateTime lastSeenAt;
 }
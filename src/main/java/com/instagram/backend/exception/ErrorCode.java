@@ -21,5 +21,5 @@ public enum ErrorCode {
     INVALID_CONNECTION,
     NOT_BLOCKED,
     POST_NOT_LIKED,
-    ALREADY_LIKED_POST, CHAT_ROOM_NOT_FOUND, INVALID_SENDER, INVALID_MESSAGE, COMMENT_ALREADY_LIKED, COMMENT_NOT_LIKED, TOO_MANY_REQUESTS, NO_FOLLOWED_USERS,
+    ALREADY_LIKED_POST, CHAT_ROOM_NOT_FOUND, INVALID_SENDER, INVALID_MESSAGE, COMMENT_ALREADY_LIKED, COMMENT_NOT_LIKED, TOO_MANY_REQUESTS, NO_FOLLOWED_USERS, INVALID_CURSOR, TOO_MANY_IDS,
 }
@@ -345,6 +345,28 @@ public class GlobalExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiError> handleInvalidCursor(InvalidCursorException ex, HttpServletRequest request) {
+        log.warn("Invalid cursor: {}", ex.getMessage());
+        return buildErrorResponseEntity(new ApiError(
+                ex.getMessage(),
+                HttpStatus.BAD_REQUEST,
+                request.getRequestURI(),
+                ErrorCode.INVALID_CURSOR
+        ));
+    }
+
+    @ExceptionHandler(TooManyIdsException.class)
+    public ResponseEntity<ApiError> handleTooManyIds(TooManyIdsException ex, HttpServletRequest request) {
+        log.warn("Too many ids: {}", ex.getMessage());
+        return buildErrorResponseEntity(new ApiError(
+                ex.getMessage(),
+                HttpStatus.BAD_REQUEST,
+                request.getRequestURI(),
+                ErrorCode.TOO_MANY_IDS
+        ));
+    }
+
 
 
     private ResponseEntity<ApiError> buildErrorResponseEntity(ApiError apiError) {
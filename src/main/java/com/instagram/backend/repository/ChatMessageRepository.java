@@ -1,14 +1,68 @@
 package com.instagram.backend.repository;
 
 import com.instagram.backend.entity.ChatMessage;
+import com.instagram.backend.entity.enums.MessageStatus;
+import com.instagram.backend.repository.projection.ChatMessageView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
 
-    List<ChatMessage> findByChatRoomIdOrderBySentAtAsc(Long chatRoomId);
+    @Query("""
+        SELECT m.id AS id, m.chatRoom.id AS chatRoomId, m.sender.id AS senderId, m.receiver.id AS receiverId,
+               m.content AS content, m.sentAt AS sentAt, m.deliveredAt AS deliveredAt, m.seenAt AS seenAt,
+               m.status AS status
+        FROM ChatMessage m
+        WHERE m.chatRoom.id = :chatRoomId
+        ORDER BY m.sentAt DESC, m.id DESC
+        """)
+    List<ChatMessageView> findLatestPage(@Param("chatRoomId") Long chatRoomId, Pageable pageable);
+
+    // Row-value comparison spelled out so the (chat_room_id, sent_at DESC, id DESC) index serves the range
+    @Query("""
+        SELECT m.id AS id, m.chatRoom.id AS chatRoomId, m.sender.id AS senderId, m.receiver.id AS receiverId,
+               m.content AS content, m.sentAt AS sentAt, m.deliveredAt AS deliveredAt, m.seenAt AS seenAt,
+               m.status AS status
+        FROM ChatMessage m
+        WHERE m.chatRoom.id = :chatRoomId
+          AND m.sentAt <= :cursorSentAt
+          AND (m.sentAt < :cursorSentAt OR m.id < :cursorId)
+        ORDER BY m.sentAt DESC, m.id DESC
+        """)
+    List<ChatMessageView> findPageBefore(@Param("chatRoomId") Long chatRoomId,
+                                         @Param("cursorSentAt") LocalDateTime cursorSentAt,
+                                         @Param("cursorId") Long cursorId,
+                                         Pageable pageable);
+
+    @Modifying
+    @Query("""
+        UPDATE ChatMessage m SET m.status = :delivered, m.deliveredAt = :now
+        WHERE m.chatRoom.id = :chatRoomId AND m.receiver.id = :receiverId AND m.id <= :upToId AND m.status = :sent
+        """)
+    int markDeliveredUpTo(@Param("chatRoomId") Long chatRoomId,
+                          @Param("receiverId") Long receiverId,
+                          @Param("upToId") Long upToId,
+                          @Param("now") LocalDateTime now,
+                          @Param("sent") MessageStatus sent,
+                          @Param("delivered") MessageStatus delivered);
+
+    @Modifying
+    @Query("""
+        UPDATE ChatMessage m SET m.status = :seen, m.seenAt = :now, m.deliveredAt = COALESCE(m.deliveredAt, :now)
+        WHERE m.chatRoom.id = :chatRoomId AND m.receiver.id = :receiverId AND m.id <= :upToId AND m.status <> :seen
+        """)
+    int markSeenUpTo(@Param("chatRoomId") Long chatRoomId,
+                     @Param("receiverId") Long receiverId,
+                     @Param("upToId") Long upToId,
+                     @Param("now") LocalDateTime now,
+                     @Param("seen") MessageStatus seen);
 
 }
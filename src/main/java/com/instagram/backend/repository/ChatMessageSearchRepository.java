@@ -0,0 +1,52 @@
+package com.instagram.backend.repository;
+
+import com.instagram.backend.dtos.response.ChatSearchHitDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Ranked full-text search over the content_tsv column (V11), restricted to the rooms of one user.
+ * Pages are keyset on (rank, id); rank is compared as Postgres real so cursors round-trip exactly.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChatMessageSearchRepository {
+
+    private static final String HITS = """
+            SELECT m.id, m.chat_room_id, m.sender_id, m.content, m.sent_at,
+                   ts_rank(m.content_tsv, q.query) AS rank
+            FROM chat_messages m
+            CROSS JOIN websearch_to_tsquery('simple', ?) AS q (query)
+            WHERE m.content_tsv @@ q.query
+              AND m.chat_room_id IN (SELECT r.id FROM chat_rooms r WHERE r.user_one_id = ? OR r.user_two_id = ?)
+            """;
+
+    private static final String FIRST_PAGE_SQL = "SELECT * FROM (" + HITS + ") hits ORDER BY rank DESC, id DESC LIMIT ?";
+
+    private static final String NEXT_PAGE_SQL = "SELECT * FROM (" + HITS + ") hits"
+            + " WHERE rank < ?::real OR (rank = ?::real AND id < ?)"
+            + " ORDER BY rank DESC, id DESC LIMIT ?";
+
+    private static final RowMapper<ChatSearchHitDTO> HIT_MAPPER = (rs, rowNum) -> ChatSearchHitDTO.builder()
+            .messageId(rs.getLong("id"))
+            .chatRoomId(rs.getLong("chat_room_id"))
+            .senderId(rs.getLong("sender_id"))
+            .content(rs.getString("content"))
+            .sentAt(rs.getTimestamp("sent_at").toLocalDateTime())
+            .rank(rs.getFloat("rank"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<ChatSearchHitDTO> search(String query, Long userId, int limit) {
+        return jdbcTemplate.query(FIRST_PAGE_SQL, HIT_MAPPER, query, userId, userId, limit);
+    }
+
+    public List<ChatSearchHitDTO> searchAfter(String query, Long userId, float cursorRank, Long cursorId, int limit) {
+        return jdbcTemplate.query(NEXT_PAGE_SQL, HIT_MAPPER, query, userId, userId, cursorRank, cursorRank, cursorId, limit);
+    }
+}
@@ -0,0 +1,83 @@
+package com.instagram.backend.repository;
+
+import com.instagram.backend.entity.ChatReadState;
+import com.instagram.backend.repository.projection.ConversationView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChatReadStateRepository extends JpaRepository<ChatReadState, Long> {
+
+    @Query("""
+        SELECT r.id AS chatRoomId,
+               CASE WHEN r.userOne.id = :userId THEN r.userTwo.id ELSE r.userOne.id END AS otherUserId,
+               r.lastMessageId AS lastMessageId, r.lastSenderId AS lastSenderId,
+               r.lastMessageSnippet AS lastMessageSnippet, s.lastMessageAt AS lastMessageAt,
+               s.unreadCount AS unreadCount
+        FROM ChatReadState s JOIN s.chatRoom r
+        WHERE s.user.id = :userId AND s.lastMessageAt IS NOT NULL
+        ORDER BY s.lastMessageAt DESC, s.chatRoom.id DESC
+        """)
+    List<ConversationView> findInboxPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("""
+        SELECT r.id AS chatRoomId,
+               CASE WHEN r.userOne.id = :userId THEN r.userTwo.id ELSE r.userOne.id END AS otherUserId,
+               r.lastMessageId AS lastMessageId, r.lastSenderId AS lastSenderId,
+               r.lastMessageSnippet AS lastMessageSnippet, s.lastMessageAt AS lastMessageAt,
+               s.unreadCount AS unreadCount
+        FROM ChatReadState s JOIN s.chatRoom r
+        WHERE s.user.id = :userId
+          AND s.lastMessageAt <= :cursorAt
+          AND (s.lastMessageAt < :cursorAt OR s.chatRoom.id < :cursorRoomId)
+        ORDER BY s.lastMessageAt DESC, s.chatRoom.id DESC
+        """)
+    List<ConversationView> findInboxPageBefore(@Param("userId") Long userId,
+                                               @Param("cursorAt") LocalDateTime cursorAt,
+                                               @Param("cursorRoomId") Long cursorRoomId,
+                                               Pageable pageable);
+
+    @Query("SELECT s.unreadCount FROM ChatReadState s WHERE s.chatRoom.id = :chatRoomId AND s.user.id = :userId")
+    Optional<Integer> findUnreadCount(@Param("chatRoomId") Long chatRoomId, @Param("userId") Long userId);
+
+    // upToId is clamped to the room's last message, so a client-supplied id cannot pre-acknowledge future messages
+    @Modifying
+    @Query(value = """
+        INSERT INTO chat_read_states (chat_room_id, user_id, delivered_until_id, seen_until_id, unread_count)
+        SELECT r.id, :userId, LEAST(:upToId, COALESCE(r.last_message_id, 0)), 0, 0
+        FROM chat_rooms r
+        WHERE r.id = :chatRoomId
+        ON CONFLICT (chat_room_id, user_id) DO UPDATE
+        SET delivered_until_id = GREATEST(chat_read_states.delivered_until_id, EXCLUDED.delivered_until_id)
+        """, nativeQuery = true)
+    void advanceDelivered(@Param("chatRoomId") Long chatRoomId, @Param("userId") Long userId, @Param("upToId") Long upToId);
+
+    // seenCount is the number of messages the bulk update moved to SEEN, so the counter stays exact under concurrency
+    @Modifying
+    @Query(value = """
+        INSERT INTO chat_read_states (chat_room_id, user_id, delivered_until_id, seen_until_id, unread_count)
+        SELECT r.id, :userId, LEAST(:upToId, COALESCE(r.last_message_id, 0)), LEAST(:upToId, COALESCE(r.last_message_id, 0)), 0
+        FROM chat_rooms r
+        WHERE r.id = :chatRoomId
+        ON CONFLICT (chat_room_id, user_id) DO UPDATE
+        SET delivered_until_id = GREATEST(chat_read_states.delivered_until_id, EXCLUDED.delivered_until_id),
+            seen_until_id = GREATEST(chat_read_states.seen_until_id, EXCLUDED.seen_until_id),
+            unread_count = GREATEST(chat_read_states.unread_count - :seenCount, 0)
+        """, nativeQuery = true)
+    void advanceSeen(@Param("chatRoomId") Long chatRoomId,
+                     @Param("userId") Long userId,
+                     @Param("upToId") Long upToId,
+                     @Param("seenCount") int seenCount);
+
+    @Modifying
+    @Query("UPDATE ChatReadState s SET s.unreadCount = s.unreadCount - 1 WHERE s.chatRoom.id = :chatRoomId AND s.user.id = :userId AND s.unreadCount > 0")
+    void decrementUnread(@Param("chatRoomId") Long chatRoomId, @Param("userId") Long userId);
+}
@@ -1,17 +1,36 @@
 package com.instagram.backend.repository;
 
 import com.instagram.backend.entity.ChatRoom;
-import com.instagram.backend.entity.User;
+import com.instagram.backend.repository.projection.RoomMembers;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
-    @Query("SELECT c FROM ChatRoom c WHERE (c.userOne = :userA AND c.userTwo = :userB) OR (c.userOne = :userB AND c.userTwo = :userA)")
-    Optional<ChatRoom> findByUsers(@Param("userA") User userA, @Param("userB") User userB);
+    // Callers pass the pair ordered (min, max), so a room is found with one equality lookup on the unique index
+    @Query("SELECT c.id FROM ChatRoom c WHERE c.userOne.id = :userOneId AND c.userTwo.id = :userTwoId")
+    Optional<Long> findIdByUserIds(@Param("userOneId") Long userOneId, @Param("userTwoId") Long userTwoId);
+
+    // Returns the new room id, or null when the pair already has a room
+    @Query(value = """
+        INSERT INTO chat_rooms (user_one_id, user_two_id) VALUES (:userOneId, :userTwoId)
+        ON CONFLICT (user_one_id, user_two_id) DO NOTHING
+        RETURNING id
+        """, nativeQuery = true)
+    Long insertIfAbsent(@Param("userOneId") Long userOneId, @Param("userTwoId") Long userTwoId);
+
+    @Query("SELECT new com.instagram.backend.repository.projection.RoomMembers(c.userOne.id, c.userTwo.id) FROM ChatRoom c WHERE c.id = :chatRoomId")
+    Optional<RoomMembers> findMembersById(@Param("chatRoomId") Long chatRoomId);
+
+    @Query("SELECT CASE WHEN c.userOne.id = :userId THEN c.userTwo.id ELSE c.userOne.id END FROM ChatRoom c WHERE c.userOne.id = :userId OR c.userTwo.id = :userId")
+    List<Long> findPeerIds(@Param("userId") Long userId);
+
+    @Query("SELECT COUNT(c) > 0 FROM ChatRoom c WHERE c.id = :chatRoomId AND (c.userOne.id = :userId OR c.userTwo.id = :userId)")
+    boolean isParticipant(@Param("chatRoomId") Long chatRoomId, @Param("userId") Long userId);
 
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.instagram.backend.repository;
+
+import com.instagram.backend.repository.projection.OutboxEmail;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * The email_outbox table. Rows leave PENDING as SENT or FAILED, at which point their variables (OTPs, reset links)
+ * are dropped; finished rows are purged after the retention period.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmailOutboxRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO email_outbox (recipient, subject, template, variables) VALUES (?, ?, ?, ?)";
+
+    private static final String CLAIM_SQL = """
+            UPDATE email_outbox o
+            SET attempts = o.attempts + 1, next_attempt_at = now() + make_interval(secs => ?)
+            FROM (
+                SELECT id FROM email_outbox
+                WHERE status = 'PENDING' AND next_attempt_at <= now()
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ) due
+            WHERE o.id = due.id
+            RETURNING o.id, o.recipient, o.subject, o.template, o.variables, o.attempts, o.created_at
+            """;
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE email_outbox SET status = 'SENT', sent_at = now(), variables = NULL, last_error = NULL WHERE id = ?";
+
+    private static final String MARK_RETRY_SQL =
+            "UPDATE email_outbox SET next_attempt_at = now() + make_interval(secs => ?), last_error = ? WHERE id = ?";
+
+    // next_attempt_at of a failed row is when it was given up on
+    private static final String MARK_FAILED_SQL =
+            "UPDATE email_outbox SET status = 'FAILED', next_attempt_at = now(), variables = NULL, last_error = ? WHERE id = ?";
+
+    private static final String DELETE_FINISHED_SQL = """
+            DELETE FROM email_outbox
+            WHERE (status = 'SENT' AND sent_at < now() - make_interval(days => ?))
+               OR (status = 'FAILED' AND next_attempt_at < now() - make_interval(days => ?))
+            """;
+
+    private static final RowMapper<OutboxEmail> OUTBOX_EMAIL_MAPPER = (rs, rowNum) -> new OutboxEmail(
+            rs.getLong("id"),
+            rs.getString("recipient"),
+            rs.getString("subject"),
+            rs.getString("template"),
+            rs.getString("variables"),
+            rs.getInt("attempts"),
+            rs.getTimestamp("created_at").toLocalDateTime()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(String recipient, String subject, String template, String variables) {
+        jdbcTemplate.update(INSERT_SQL, recipient, subject, template, variables);
+    }
+
+    /**
+     * Claims up to {@code limit} due rows for {@code leaseSeconds}; rows claimed by other workers are skipped.
+     */
+    public List<OutboxEmail> claimDue(double leaseSeconds, int limit) {
+        return jdbcTemplate.query(CLAIM_SQL, OUTBOX_EMAIL_MAPPER, leaseSeconds, limit);
+    }
+
+    public void markSent(long id) {
+        jdbcTemplate.update(MARK_SENT_SQL, id);
+    }
+
+    public void markForRetry(long id, double backoffSeconds, String error) {
+        jdbcTemplate.update(MARK_RETRY_SQL, backoffSeconds, error, id);
+    }
+
+    public void markFailed(long id, String error) {
+        jdbcTemplate.update(MARK_FAILED_SQL, error, id);
+    }
+
+    /**
+     * Deletes SENT and FAILED rows that finished more than {@code retentionDays} ago.
+     */
+    public int deleteFinishedBefore(int retentionDays) {
+        return jdbcTemplate.update(DELETE_FINISHED_SQL, retentionDays, retentionDays);
+    }
+}
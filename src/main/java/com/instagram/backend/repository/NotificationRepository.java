@@ -1,23 +1,106 @@
 package com.instagram.backend.repository;
 
 import com.instagram.backend.entity.Notification;
+import com.instagram.backend.repository.projection.NotificationView;
+import com.instagram.backend.repository.projection.UnreadSeed;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
-    // Get all notifications for a user, sorted by newest first
-    List<Notification> findByRecipientIdOrderByCreatedAtDesc(Long recipientId);
+    // First inbox page, newest first
+    @Query("""
+        SELECT n.id AS id, n.sender.id AS senderId, n.type AS type,
+               n.createdAt AS createdAt, n.isRead AS isRead, n.targetId AS targetId,
+               n.actorCount AS actorCount, n.latestActorIds AS latestActorIds
+        FROM Notification n
+        WHERE n.recipient.id = :recipientId AND n.createdAt >= :horizon
+        ORDER BY n.createdAt DESC, n.id DESC
+    """)
+    List<NotificationView> findInboxPage(@Param("recipientId") Long recipientId,
+                                         @Param("horizon") LocalDateTime horizon,
+                                         Pageable pageable);
 
-    //count unread notifications
-    @Query("SELECT COUNT(n) FROM Notification n WHERE n.recipient.id = :recipientId AND n.isRead = false")
-    Long countUnreadByReceiverId(@Param("recipientId") Long recipientId);
+    // Next inbox page strictly after the (createdAt, id) cursor, served from idx_notifications_recipient_created_id
+    @Query("""
+        SELECT n.id AS id, n.sender.id AS senderId, n.type AS type,
+               n.createdAt AS createdAt, n.isRead AS isRead, n.targetId AS targetId,
+               n.actorCount AS actorCount, n.latestActorIds AS latestActorIds
+        FROM Notification n
+        WHERE n.recipient.id = :recipientId
+          AND n.createdAt >= :horizon
+          AND n.createdAt <= :cursorCreatedAt
+          AND (n.createdAt < :cursorCreatedAt OR n.id < :cursorId)
+        ORDER BY n.createdAt DESC, n.id DESC
+    """)
+    List<NotificationView> findInboxPageBefore(@Param("recipientId") Long recipientId,
+                                               @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                               @Param("cursorId") Long cursorId,
+                                               @Param("horizon") LocalDateTime horizon,
+                                               Pageable pageable);
 
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.recipient.id = :recipientId AND n.isRead = false")
-    void markAllAsRead(@Param("recipientId") Long recipientId);
+    @Query("""
+        SELECT n.createdAt FROM Notification n
+        WHERE n.id = :id AND n.recipient.id = :recipientId AND n.createdAt >= :horizon
+    """)
+    Optional<LocalDateTime> findCreatedAtByIdAndRecipientId(@Param("id") Long id,
+                                                            @Param("recipientId") Long recipientId,
+                                                            @Param("horizon") LocalDateTime horizon);
+
+    // Rows created or bumped by aggregation after the client's last seen notification, oldest first
+    @Query("""
+        SELECT n.id AS id, n.sender.id AS senderId, n.type AS type,
+               n.createdAt AS createdAt, n.isRead AS isRead, n.targetId AS targetId,
+               n.actorCount AS actorCount, n.latestActorIds AS latestActorIds
+        FROM Notification n
+        WHERE n.recipient.id = :recipientId AND n.createdAt > :lastSeenAt
+        ORDER BY n.createdAt ASC, n.id ASC
+    """)
+    List<NotificationView> findCreatedAfter(@Param("recipientId") Long recipientId,
+                                            @Param("lastSeenAt") LocalDateTime lastSeenAt,
+                                            Pageable pageable);
+
+    // Fallback when the last seen notification no longer exists
+    @Query("""
+        SELECT n.id AS id, n.sender.id AS senderId, n.type AS type,
+               n.createdAt AS createdAt, n.isRead AS isRead, n.targetId AS targetId,
+               n.actorCount AS actorCount, n.latestActorIds AS latestActorIds
+        FROM Notification n
+        WHERE n.recipient.id = :recipientId AND n.id > :lastSeenId AND n.createdAt >= :horizon
+        ORDER BY n.id ASC
+    """)
+    List<NotificationView> findIdAfter(@Param("recipientId") Long recipientId,
+                                       @Param("lastSeenId") Long lastSeenId,
+                                       @Param("horizon") LocalDateTime horizon,
+                                       Pageable pageable);
+
+    // Unread = newer than the recipient's read watermark and not individually read; rows above highWaterId were
+    // not visible to the count
+    @Query("""
+        SELECT COUNT(n) AS unread,
+               (SELECT COALESCE(MAX(m.id), 0) FROM Notification m
+                WHERE m.recipient.id = :recipientId AND m.createdAt >= :horizon) AS highWaterId
+        FROM Notification n, User u
+        WHERE u.id = :recipientId AND n.recipient.id = :recipientId AND n.isRead = false
+          AND n.createdAt >= :horizon
+          AND (u.notificationsReadUntil IS NULL OR n.createdAt > u.notificationsReadUntil)
+    """)
+    UnreadSeed seedUnreadCount(@Param("recipientId") Long recipientId, @Param("horizon") LocalDateTime horizon);
+
+    // Individual read; rows under the watermark are already read
+    @Modifying
+    @Query("""
+        UPDATE Notification n SET n.isRead = true
+        WHERE n.id = :id AND n.recipient.id = :recipientId AND n.isRead = false AND n.createdAt > :readUntil
+    """)
+    int markAsRead(@Param("id") Long id, @Param("recipientId") Long recipientId, @Param("readUntil") LocalDateTime readUntil);
 }
@@ -0,0 +1,39 @@
+package com.instagram.backend.repository;
+
+import com.instagram.backend.dtos.response.NotificationSummaryResponse;
+import com.instagram.backend.entity.enums.NotificationType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Per-user monthly rollups of read notifications that NotificationPartitionManager compacted out of old partitions.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationSummaryRepository {
+
+    private static final String FIND_BY_USER_SQL = """
+            SELECT month, type, notification_count, actor_count
+            FROM notification_summaries
+            WHERE user_id = ?
+            ORDER BY month DESC, type
+            LIMIT ?
+            """;
+
+    private static final RowMapper<NotificationSummaryResponse> SUMMARY_MAPPER = (rs, rowNum) -> NotificationSummaryResponse.builder()
+            .month(rs.getDate("month").toLocalDate())
+            .type(NotificationType.valueOf(rs.getString("type")))
+            .notificationCount(rs.getLong("notification_count"))
+            .actorCount(rs.getLong("actor_count"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<NotificationSummaryResponse> findByUserId(Long userId, int limit) {
+        return jdbcTemplate.query(FIND_BY_USER_SQL, SUMMARY_MAPPER, userId, limit);
+    }
+}
@@ -44,6 +44,16 @@ public interface UserConnectionRepository extends JpaRepository<UserConnection,
     @Query("SELECT uc.toUser FROM UserConnection uc WHERE uc.fromUser.id = :userId AND uc.connectionType = 'FOLLOW'")
     List<User> findFollowedUsers(@Param("userId") Long userId);
 
+    @Query("""
+    SELECT uc1.toUser.id FROM UserConnection uc1
+    WHERE uc1.fromUser.id = :userId AND uc1.connectionType = 'FOLLOW'
+    AND EXISTS (
+        SELECT 1 FROM UserConnection uc2
+        WHERE uc2.fromUser.id = uc1.toUser.id AND uc2.toUser.id = :userId AND uc2.connectionType = 'FOLLOW'
+    )
+""")
+    List<Long> findMutualFollowerIds(@Param("userId") Long userId);
+
     boolean existsByFromUserIdAndToUserIdAndConnectionType(Long fromUserId, Long toUserId, ConnectionType connectionType);
 
 }
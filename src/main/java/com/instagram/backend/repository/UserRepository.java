@@ -1,9 +1,16 @@
 package com.instagram.backend.repository;
 
+import com.instagram.backend.dtos.response.UserDto;
 import com.instagram.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -17,4 +24,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     List<User> findByUsernameContainingIgnoreCase(String username);
     List<User> findByUsernameIn(Set<String> usernames);
+
+    @Query("SELECT new com.instagram.backend.dtos.response.UserDto(u.id, u.username, u.profileImageUrl) FROM User u WHERE u.id IN :ids")
+    List<UserDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE User u SET u.notificationsReadUntil = :readUntil WHERE u.id = :userId")
+    int updateNotificationsReadUntil(@Param("userId") Long userId, @Param("readUntil") LocalDateTime readUntil);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.lastSeenAt = :lastSeenAt WHERE u.id = :userId")
+    int updateLastSeenAt(@Param("userId") Long userId, @Param("lastSeenAt") LocalDateTime lastSeenAt);
+
+    @Query("SELECT u.id, u.lastSeenAt FROM User u WHERE u.id IN :ids")
+    List<Object[]> findLastSeenByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.notificationsReadUntil FROM User u WHERE u.id = :userId")
+    Optional<LocalDateTime> findNotificationsReadUntilById(@Param("userId") Long userId);
 }
@@ -0,0 +1,20 @@
+package com.instagram.backend.repository.projection;
+
+import com.instagram.backend.entity.enums.MessageStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Chat history row read without loading the chat room, sender or receiver entities.
+ */
+public interface ChatMessageView {
+    Long getId();
+    Long getChatRoomId();
+    Long getSenderId();
+    Long getReceiverId();
+    String getContent();
+    LocalDateTime getSentAt();
+    LocalDateTime getDeliveredAt();
+    LocalDateTime getSeenAt();
+    MessageStatus getStatus();
+}
@@ -0,0 +1,16 @@
+package com.instagram.backend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inbox row read from the denormalized conversation summary, without loading rooms or messages.
+ */
+public interface ConversationView {
+    Long getChatRoomId();
+    Long getOtherUserId();
+    Long getLastMessageId();
+    Long getLastSenderId();
+    String getLastMessageSnippet();
+    LocalDateTime getLastMessageAt();
+    Integer getUnreadCount();
+}
@@ -0,0 +1,19 @@
+package com.instagram.backend.repository.projection;
+
+import com.instagram.backend.entity.enums.NotificationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inbox row read without loading the sender or recipient entities. Text is rendered from the type at read time.
+ */
+public interface NotificationView {
+    Long getId();
+    Long getSenderId();
+    NotificationType getType();
+    LocalDateTime getCreatedAt();
+    Boolean getIsRead();
+    Long getTargetId();
+    Integer getActorCount();
+    String getLatestActorIds();
+}
@@ -0,0 +1,15 @@
+package com.instagram.backend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * A claimed email_outbox row; attempts already counts the current claim.
+ */
+public record OutboxEmail(long id,
+                          String recipient,
+                          String subject,
+                          String template,
+                          String variables,
+                          int attempts,
+                          LocalDateTime createdAt) {
+}
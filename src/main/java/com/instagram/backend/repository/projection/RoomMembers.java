@@ -0,0 +1,18 @@
+package com.instagram.backend.repository.projection;
+
+/**
+ * The two participants of a chat room, read without loading the room or user entities.
+ */
+public record RoomMembers(Long userOneId, Long userTwoId) {
+
+    public boolean contains(Long userId) {
+        return userOneId.equals(userId) || userTwoId.equals(userId);
+    }
+
+    /**
+     * The participant that is not {@code userId}; only meaningful when {@link #contains} holds.
+     */
+    public Long otherThan(Long userId) {
+        return userOneId.equals(userId) ? userTwoId : userOneId;
+    }
+}
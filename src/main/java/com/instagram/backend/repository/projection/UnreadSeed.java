@@ -0,0 +1,10 @@
+package com.instagram.backend.repository.projection;
+
+/**
+ * Unread count of a recipient together with the highest notification id the count could see, read in one
+ * statement so both come from the same snapshot.
+ */
+public interface UnreadSeed {
+    long getUnread();
+    long getHighWaterId();
+}
@@ -0,0 +1,41 @@
+package com.instagram.backend.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal set by {@link JwtAuthenticationFilter} from the verified token, so the caller's ID, username and
+ * roles are known without touching the database. userId is null for tokens that do not carry it.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long userId;
+    private final String username;
+    private final List<? extends GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long userId, String username, List<? extends GrantedAuthority> authorities) {
+        this.userId = userId;
+        this.username = username;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return ""; // Password not needed here
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -50,14 +50,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(TOKEN_PREFIX.length());
-        String username = null;
+
+        // Signature and expiry are checked once here; the claims below come from that single parse
+        VerifiedToken verified;
         try {
-            username = jwtTokenProvider.extractUsername(token);
-            log.debug("Extracted username from token: {}", username);
+            verified = jwtTokenProvider.verify(token);
         } catch (Exception e) {
-            log.error("Error extracting username from token", e);
+            log.warn("JWT token validation failed: {}", e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
         }
 
+        String username = verified.username();
         if (username == null) {
             log.warn("Username extracted from token is null, skipping authentication");
             filterChain.doFilter(request, response);
@@ -68,39 +72,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // If you want to load userDetails from DB, uncomment below:
             // UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-            List<String> rolesFromToken = null;
-            try {
-                rolesFromToken = jwtTokenProvider.extractRoles(token);
-                log.debug("Roles extracted from token: {}", rolesFromToken);
-            } catch (Exception e) {
-                log.error("Error extracting roles from token", e);
-            }
-
-            if (rolesFromToken == null) {
-                log.warn("No roles extracted from token, skipping authentication");
-                filterChain.doFilter(request, response);
-                return;
-            }
-
-            List<SimpleGrantedAuthority> authorities = rolesFromToken.stream()
+            List<SimpleGrantedAuthority> authorities = verified.roles().stream()
                     .map(SimpleGrantedAuthority::new)
                     .collect(Collectors.toList());
 
-            UserDetails userDetails = new org.springframework.security.core.userdetails.User(
-                    username,
-                    "", // Password not needed here
-                    authorities
-            );
-
-            if (jwtTokenProvider.validateToken(token, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                log.info("Authenticated user '{}', security context updated", username);
-            } else {
-                log.warn("JWT token validation failed for user '{}'", username);
-            }
+            UserDetails userDetails = new AuthenticatedUser(verified.userId(), username, authorities);
+
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+            log.debug("Authenticated user '{}', security context updated", username);
         } else {
             log.debug("Security context already contains authentication for user '{}'", username);
         }
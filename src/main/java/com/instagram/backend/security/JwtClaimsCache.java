@@ -0,0 +1,76 @@
+package com.instagram.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU of verified tokens keyed by the SHA-256 of the token, so a client sending the same token on every
+ * request is parsed and signature-checked once. Entries are dropped when the token expires; raw tokens are never kept.
+ */
+@Component
+public class JwtClaimsCache {
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, VerifiedToken> cache = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    public JwtClaimsCache(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("security.jwt.claims-cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("security.jwt.claims-cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached claims of the token, or verifies it with the given function and caches the result.
+     * Verification failures are thrown to the caller and never cached.
+     */
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+
+        synchronized (cache) {
+            VerifiedToken cached = cache.get(key);
+            if (cached != null) {
+                if (!cached.isExpired(now)) {
+                    hits.increment();
+                    return cached;
+                }
+                cache.remove(key);
+            }
+        }
+
+        misses.increment();
+        VerifiedToken verified = verifier.apply(token);
+        synchronized (cache) {
+            cache.put(key, verified);
+        }
+        return verified;
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
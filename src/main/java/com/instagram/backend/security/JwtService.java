@@ -1,8 +1,11 @@
 package com.instagram.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -12,13 +15,15 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class JwtService {
 
+    private final JwtClaimsCache claimsCache;
+
     @Value("${jwt.secret}")
     public String SECRET_KEY;
 
@@ -28,8 +33,36 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     public long REFRESH_EXPIRATION_TIME;
 
+    // Built once: both are immutable and thread-safe
+    private SecretKey secretKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        secretKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser().verifyWith(secretKey).build();
+    }
+
     private SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        return secretKey;
+    }
+
+    /**
+     * Checks signature and expiry of the token once and returns its claims; repeated tokens are served from
+     * {@link JwtClaimsCache}. Throws a {@link io.jsonwebtoken.JwtException} for invalid or expired tokens.
+     */
+    public VerifiedToken verify(String token) {
+        return claimsCache.get(token, this::parse);
+    }
+
+    private VerifiedToken parse(String token) {
+        Claims claims = extractAllClaims(token);
+        return new VerifiedToken(
+                claims.getSubject(),
+                toUserId(claims.get("userId")),
+                toRoles(claims.get("roles")),
+                claims.getExpiration().getTime()
+        );
     }
 
     public String generateToken(UserDetails userDetails, Long userId) {
@@ -54,8 +87,8 @@ public class JwtService {
     }
 
     public boolean isRefreshTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        VerifiedToken verified = verify(token);
+        return verified.username().equals(userDetails.getUsername()) && !verified.isExpired(System.currentTimeMillis());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
@@ -70,13 +103,21 @@ public class JwtService {
 
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).username();
     }
 
     public Long extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
-        Object userIdObj = claims.get("userId");
-        if (userIdObj instanceof Integer) {
+        Long userId = verify(token).userId();
+        if (userId == null) {
+            throw new IllegalArgumentException("Invalid userId claim type");
+        }
+        return userId;
+    }
+
+    private Long toUserId(Object userIdObj) {
+        if (userIdObj == null) {
+            return null;
+        } else if (userIdObj instanceof Integer) {
             return ((Integer) userIdObj).longValue();
         } else if (userIdObj instanceof Long) {
             return (Long) userIdObj;
@@ -88,41 +129,30 @@ public class JwtService {
 
 
     public List<String> extractRoles(String token) {
-        Claims claims = extractAllClaims(token);
-        Object roles = claims.get("roles");
+        return verify(token).roles();
+    }
+
+    private List<String> toRoles(Object roles) {
         if (roles instanceof List<?>) {
             return ((List<?>) roles).stream()
                     .map(Object::toString)
-                    .collect(Collectors.toList());
+                    .toList();
         }
         return Collections.emptyList();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return new Date(verify(token).expiresAtMillis());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSecretKey())
-                .build().parseSignedClaims(token)
-                .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        boolean isValid = (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        VerifiedToken verified = verify(token);
+        boolean isValid = verified.username().equals(userDetails.getUsername()) && !verified.isExpired(System.currentTimeMillis());
 
         log.info("Validating token for user {}: {}", userDetails.getUsername(), isValid ? "Valid" : "Invalid");
         return isValid;
@@ -0,0 +1,13 @@
+package com.instagram.backend.security;
+
+import java.util.List;
+
+/**
+ * Claims of a token whose signature and expiry were checked. userId is null for refresh tokens.
+ */
+public record VerifiedToken(String username, Long userId, List<String> roles, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+}
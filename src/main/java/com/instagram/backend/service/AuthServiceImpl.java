@@ -22,6 +22,7 @@ import com.instagram.backend.utils.OtpSessionStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -56,8 +57,13 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final OtpSessionStore otpSessionStore;
 
+    // Wrong OTPs allowed per login before the temp token is discarded
+    @Value("${otp.max-attempts:5}")
+    private int maxOtpAttempts;
+
 
     @Override
+    @Transactional
     public ApiResponse<RegistrationResponse> registerUser(RegisterRequest request, String appUrl) {
         log.info("Registering user: {}", request.getEmail());
 
@@ -86,6 +92,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
+    @Transactional
     public ApiResponse<String> verifyUser(String token) {
         log.info("Starting verification for token: {}", token);
 
@@ -149,6 +156,7 @@ public class AuthServiceImpl implements AuthService {
 //    }
 
     @Override
+    @Transactional
     public ApiResponse<String> login(LoginRequest request) {
         log.info("Login attempt for: {}", request.getUsernameOrEmail());
 
@@ -163,12 +171,13 @@ public class AuthServiceImpl implements AuthService {
             throw new BadCredentialsException("Invalid password");
         }
 
-        generateAndSendOTP(user);
-        log.info("OTP sent to user email: {}", user.getEmail());
-        // ✅ Create and store tempToken → map to user
+        // ✅ Create and store tempToken → map to user (first, so a full store rejects the login before any email)
         String tempToken = UUID.randomUUID().toString();
         otpSessionStore.save(tempToken, user.getUsername());
 
+        generateAndSendOTP(user);
+        log.info("OTP email queued for: {}", user.getEmail());
+
 
         return ApiResponse.success(tempToken, "OTP sent to your email. Please verify to continue.");
     }
@@ -176,11 +185,11 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public ApiResponse<LoginResponse> verifyOtp(String tempToken, String enteredOtp) {
         // 1. Validate tempToken exists
-        if (!otpSessionStore.exists(tempToken)) {
+        String username = otpSessionStore.getUsername(tempToken);
+        if (username == null) {
             throw new TokenExpiredException("Invalid or expired session token.");
         }
 
-        String username = otpSessionStore.getUsername(tempToken);
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException("User not found."));
 
@@ -190,6 +199,11 @@ public class AuthServiceImpl implements AuthService {
         }
 
         if (!enteredOtp.equals(user.getOtp()) || user.getOtpExpiry().isBefore(Instant.now())) {
+            if (otpSessionStore.recordFailedAttempt(tempToken) >= maxOtpAttempts) {
+                otpSessionStore.remove(tempToken);
+                log.warn("Too many invalid OTP attempts for user: {}", username);
+                throw new TooManyRequestsException("Too many invalid OTP attempts. Please login again.");
+            }
             throw new BadCredentialsException("Invalid or expired OTP");
         }
 
@@ -221,17 +235,19 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
+    @Transactional
     public ApiResponse<String> resendOtp(String tempToken) {
-        if (!otpSessionStore.exists(tempToken)) {
+        String username = otpSessionStore.getUsername(tempToken);
+        if (username == null) {
             throw new TokenExpiredException("Invalid or expired session token.");
         }
 
-        String username = otpSessionStore.getUsername(tempToken);
-
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         generateAndSendOTP(user);
+        // The new OTP is valid for another five minutes, so is the session
+        otpSessionStore.refresh(tempToken);
         return ApiResponse.success("OTP resent successfully to " + user.getEmail(), "OTP resent");
     }
 
@@ -291,6 +307,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
+    @Transactional
     public ApiResponse<String> forgotPassword(ForgotPasswordRequest request, String appUrl) {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new UserNotFoundException("No user associated with this email"));
@@ -315,6 +332,7 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
+    @Transactional
     public ApiResponse<String> resetPassword(ResetPasswordRequest request, String token) {
         PasswordResetToken resetToken  = passwordResetTokenRepository.findByToken(token)
                 .orElseThrow(() -> new InvalidTokenException("Invalid password reset token"));
@@ -364,7 +382,7 @@ public class AuthServiceImpl implements AuthService {
 
     private void sendEmail(User user, String subject, String template, Map<String, Object> variables) {
         emailService.sendEmail(user.getEmail(), subject, template, variables);
-        log.info("Email '{}' sent to {}", subject, user.getEmail());
+        log.info("Email '{}' queued for {}", subject, user.getEmail());
     }
 
     private String generateRandomToken() {
@@ -390,7 +408,7 @@ public class AuthServiceImpl implements AuthService {
 
         log.debug("Verification URL sent: {}", verifyUrl);
 
-        log.info("Verification email sent to {}", user.getEmail());
+        log.info("Verification email queued for {}", user.getEmail());
     }
 
     private void validateTokenExpiry(LocalDateTime expiryDate) {
@@ -399,6 +417,7 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    @Transactional
     public void generateAndSendOTP(User user) {
         String otp = String.format("%06d", new Random().nextInt(999999));
         Instant expiry = Instant.now().plus(Duration.ofMinutes(5));
@@ -1,7 +1,25 @@
 package com.instagram.backend.service;
 
+import com.instagram.backend.entity.User;
 import org.springframework.security.core.Authentication;
 
 public interface AuthenticationFacade {
     Authentication getAuthentication();
+
+    /**
+     * ID of the caller, read from the JWT principal without I/O.
+     */
+    Long getCurrentUserId();
+
+    String getCurrentUsername();
+
+    /**
+     * Unloaded reference to the caller, for associations and ID-based queries.
+     */
+    User getCurrentUserReference();
+
+    /**
+     * Fully loaded caller, fetched at most once per request.
+     */
+    User getCurrentUser();
 }
@@ -1,14 +1,27 @@
 package com.instagram.backend.service;
 
+import com.instagram.backend.entity.User;
+import com.instagram.backend.exception.UserNotFoundException;
+import com.instagram.backend.repository.UserRepository;
+import com.instagram.backend.security.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class AuthenticationFacadeImpl implements AuthenticationFacade{
+
+    private static final String CURRENT_USER_ATTRIBUTE = AuthenticationFacadeImpl.class.getName() + ".currentUser";
+
+    private final UserRepository userRepository;
+
     @Override
     public Authentication getAuthentication() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -19,4 +32,47 @@ public class AuthenticationFacadeImpl implements AuthenticationFacade{
         }
         return authentication;
     }
+
+    @Override
+    public Long getCurrentUserId() {
+        Authentication authentication = getAuthentication();
+        if (authentication != null
+                && authentication.getPrincipal() instanceof AuthenticatedUser principal
+                && principal.getUserId() != null) {
+            return principal.getUserId();
+        }
+        // Principals not issued from our JWT (e.g. tokens without a userId claim) need one lookup
+        return getCurrentUser().getId();
+    }
+
+    @Override
+    public String getCurrentUsername() {
+        return getAuthentication().getName();
+    }
+
+    @Override
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+
+    @Override
+    public User getCurrentUser() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User memoized) {
+            return memoized;
+        }
+
+        String username = getCurrentUsername();
+        log.debug("Authenticated username: {}", username);
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    log.error("User not found with username: {}", username);
+                    return new UserNotFoundException("User not found with username : " + username);
+                });
+
+        if (request != null) {
+            request.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
 }
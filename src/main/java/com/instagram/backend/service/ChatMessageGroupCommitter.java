@@ -0,0 +1,249 @@
+package com.instagram.backend.service;
+
+import com.instagram.backend.dtos.response.ChatMessageResponseDTO;
+import com.instagram.backend.entity.enums.MessageStatus;
+import com.instagram.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional group-commit path for chat messages. Messages are queued on one bounded ring buffer per shard
+ * (rooms are pinned to a shard, so per-room order is kept) and written by the shard's worker as a single
+ * multi-row INSERT every few milliseconds or every N messages. Each sender's future completes only after
+ * the batch has committed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatMessageGroupCommitter {
+
+    // Ids are drawn per row next to the client-supplied ordinal, so each id maps back to its message
+    // regardless of the order the rows are inserted or returned in
+    private static final String INSERT_SQL = """
+            WITH batch AS (
+                SELECT nextval(pg_get_serial_sequence('chat_messages', 'id')) AS id, v.*
+                FROM (VALUES %s) AS v (ordinal, chat_room_id, sender_id, receiver_id, content, sent_at, status)
+            ), inserted AS (
+                INSERT INTO chat_messages (id, chat_room_id, sender_id, receiver_id, content, sent_at, status)
+                SELECT id, chat_room_id, sender_id, receiver_id, content, sent_at, status FROM batch
+                RETURNING id
+            )
+            SELECT b.ordinal, b.id FROM batch b JOIN inserted i ON i.id = b.id
+            """;
+    // Typed explicitly: inside VALUES the server would otherwise resolve untyped parameters to text
+    private static final String ROW_PLACEHOLDERS = "(?::int, ?::bigint, ?::bigint, ?::bigint, ?::text, ?::timestamp, ?::varchar)";
+    private static final int COLUMNS = 7;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${chat.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.group-commit.shards:4}")
+    private int shardCount;
+
+    @Value("${chat.group-commit.queue-capacity:4096}")
+    private int queueCapacity;
+
+    // Longest a sender waits for room in a full shard before the message is rejected
+    @Value("${chat.group-commit.enqueue-timeout-ms:100}")
+    private long enqueueTimeoutMillis;
+
+    @Value("${chat.group-commit.max-batch-size:256}")
+    private int maxBatchSize;
+
+    // Longest a message waits for companions before its batch is written
+    @Value("${chat.group-commit.max-delay-ms:5}")
+    private long maxDelayMillis;
+
+    private List<BlockingQueue<PendingMessage>> shards;
+    private ExecutorService workers;
+    private volatile boolean running;
+    private DistributionSummary batchSizes;
+    private Counter rejected;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        batchSizes = DistributionSummary.builder("chat.group-commit.batch.size")
+                .description("Chat messages written per group commit")
+                .register(meterRegistry);
+        rejected = Counter.builder("chat.group-commit.rejected")
+                .description("Chat messages rejected because their shard stayed full")
+                .register(meterRegistry);
+
+        shards = new ArrayList<>(shardCount);
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "chat-group-commit-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < shardCount; i++) {
+            BlockingQueue<PendingMessage> shard = new ArrayBlockingQueue<>(queueCapacity);
+            shards.add(shard);
+            workers.submit(() -> runShard(shard));
+        }
+        log.info("Chat group commit enabled with {} shards, batches of up to {} every {} ms",
+                shardCount, maxBatchSize, maxDelayMillis);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        for (BlockingQueue<PendingMessage> shard : shards) {
+            List<PendingMessage> remaining = new ArrayList<>();
+            shard.drainTo(remaining);
+            for (int from = 0; from < remaining.size(); from += maxBatchSize) {
+                commit(remaining.subList(from, Math.min(from + maxBatchSize, remaining.size())));
+            }
+        }
+    }
+
+    /**
+     * Queues an already validated message. Waits briefly while the shard is full, then fails the future with
+     * {@link TooManyRequestsException} rather than blocking the inbound thread.
+     */
+    public CompletableFuture<ChatMessageResponseDTO> submit(Long chatRoomId, Long senderId, Long receiverId, String content) {
+        PendingMessage pending = new PendingMessage(
+                chatRoomId, senderId, receiverId, content, LocalDateTime.now(), new CompletableFuture<>());
+        try {
+            BlockingQueue<PendingMessage> shard = shards.get(Math.floorMod(chatRoomId.hashCode(), shardCount));
+            if (!shard.offer(pending, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                pending.result().completeExceptionally(
+                        new TooManyRequestsException("Too many chat messages in flight, please retry."));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result().completeExceptionally(e);
+        }
+        return pending.result();
+    }
+
+    private void runShard(BlockingQueue<PendingMessage> shard) {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingMessage first = shard.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < maxBatchSize) {
+                    shard.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = shard.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizes.record(batch.size());
+
+        StringJoiner rows = new StringJoiner(", ");
+        Object[] args = new Object[batch.size() * COLUMNS];
+        for (int i = 0; i < batch.size(); i++) {
+            PendingMessage message = batch.get(i);
+            rows.add(ROW_PLACEHOLDERS);
+            int offset = i * COLUMNS;
+            args[offset] = i;
+            args[offset + 1] = message.chatRoomId();
+            args[offset + 2] = message.senderId();
+            args[offset + 3] = message.receiverId();
+            args[offset + 4] = message.content();
+            args[offset + 5] = Timestamp.valueOf(message.sentAt());
+            args[offset + 6] = MessageStatus.SENT.name();
+        }
+
+        try {
+            // One statement, so the whole batch commits atomically under auto-commit
+            Long[] ids = new Long[batch.size()];
+            jdbcTemplate.query(INSERT_SQL.formatted(rows), (RowCallbackHandler) rs -> ids[rs.getInt(1)] = rs.getLong(2), args);
+            for (int i = 0; i < batch.size(); i++) {
+                if (ids[i] == null) {
+                    throw new IllegalStateException("No id returned for row " + i + " of the batch");
+                }
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(toDto(batch.get(i), ids[i]));
+            }
+            log.debug("Group-committed {} chat messages", batch.size());
+        } catch (Exception e) {
+            log.error("Group commit of {} chat messages failed: {}", batch.size(), e.getMessage(), e);
+            batch.forEach(message -> message.result().completeExceptionally(e));
+        }
+    }
+
+    private ChatMessageResponseDTO toDto(PendingMessage message, Long id) {
+        return ChatMessageResponseDTO.builder()
+                .id(id)
+                .chatRoomId(message.chatRoomId())
+                .senderId(message.senderId())
+                .receiverId(message.receiverId())
+                .content(message.content())
+                .sentAt(message.sentAt())
+                .status(MessageStatus.SENT)
+                .build();
+    }
+
+    private record PendingMessage(Long chatRoomId, Long senderId, Long receiverId, String content,
+                                  LocalDateTime sentAt, CompletableFuture<ChatMessageResponseDTO> result) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.instagram.backend.service;
+
+import com.instagram.backend.repository.ChatRoomRepository;
+import com.instagram.backend.repository.projection.RoomMembers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU caches of chat room participants and of the (userOneId, userTwoId) pair -> room id mapping, so
+ * sends validate membership and repeated opens resolve the room without touching the database.
+ * Participants of a room never change, so entries need no expiry.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatRoomMembershipCache {
+
+    private final ChatRoomRepository chatRoomRepository;
+
+    @Value("${chat.membership-cache.max-size:100000}")
+    private int maxSize;
+
+    private final Map<Long, RoomMembers> cache = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, RoomMembers> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    private final Map<UserPair, Long> roomIdsByPair = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UserPair, Long> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    /**
+     * Cached room of the pair; ids must be ordered (min, max) like the chat_rooms columns.
+     */
+    public Optional<Long> findRoomId(Long userOneId, Long userTwoId) {
+        synchronized (roomIdsByPair) {
+            return Optional.ofNullable(roomIdsByPair.get(new UserPair(userOneId, userTwoId)));
+        }
+    }
+
+    /**
+     * Returns the participants of the room, or empty when the room does not exist.
+     */
+    public Optional<RoomMembers> get(Long chatRoomId) {
+        synchronized (cache) {
+            RoomMembers cached = cache.get(chatRoomId);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+
+        log.debug("Loading members of chat room {}", chatRoomId);
+        Optional<RoomMembers> loaded = chatRoomRepository.findMembersById(chatRoomId);
+        loaded.ifPresent(members -> {
+            synchronized (cache) {
+                cache.put(chatRoomId, members);
+            }
+        });
+        return loaded;
+    }
+
+    public void put(Long chatRoomId, Long userOneId, Long userTwoId) {
+        synchronized (cache) {
+            cache.put(chatRoomId, new RoomMembers(userOneId, userTwoId));
+        }
+        synchronized (roomIdsByPair) {
+            roomIdsByPair.put(new UserPair(userOneId, userTwoId), chatRoomId);
+        }
+    }
+
+    private record UserPair(Long userOneId, Long userTwoId) {
+    }
+}
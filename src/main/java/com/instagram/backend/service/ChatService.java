@@ -2,16 +2,30 @@ package com.instagram.backend.service;
 
 import com.instagram.backend.dtos.request.ChatMessageRequestDTO;
 import com.instagram.backend.dtos.response.ChatMessageResponseDTO;
+import com.instagram.backend.dtos.response.ChatReceiptResponseDTO;
+import com.instagram.backend.dtos.response.ChatSearchHitDTO;
+import com.instagram.backend.dtos.response.ConversationResponseDTO;
+import com.instagram.backend.dtos.response.CursorPageResponse;
 import com.instagram.backend.entity.enums.MessageStatus;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface ChatService {
     String findOrCreateChatRoom(Long userOneId, Long userTwoId);
 
     ChatMessageResponseDTO sendMessage(ChatMessageRequestDTO messageRequest);
 
+    CompletableFuture<ChatMessageResponseDTO> sendMessageAsync(ChatMessageRequestDTO messageRequest);
+
     ChatMessageResponseDTO updateMessageStatus(Long messageId, MessageStatus status);
 
-    List<ChatMessageResponseDTO> getMessagesByChatRoom(Long chatRoomId);
+    ChatReceiptResponseDTO markMessagesUpTo(Long chatRoomId, Long upToMessageId, MessageStatus status);
+
+    long countUnreadMessages(Long chatRoomId);
+
+    CursorPageResponse<ConversationResponseDTO> getInbox(String cursor, int limit);
+
+    CursorPageResponse<ChatSearchHitDTO> searchMessages(String query, String cursor, int limit);
+
+    CursorPageResponse<ChatMessageResponseDTO> getMessagesByChatRoom(Long chatRoomId, String before, int limit);
 }
@@ -2,35 +2,77 @@ package com.instagram.backend.service;
 
 import com.instagram.backend.dtos.request.ChatMessageRequestDTO;
 import com.instagram.backend.dtos.response.ChatMessageResponseDTO;
+import com.instagram.backend.dtos.response.ChatReceiptResponseDTO;
+import com.instagram.backend.dtos.response.ChatSearchHitDTO;
+import com.instagram.backend.dtos.response.ConversationResponseDTO;
+import com.instagram.backend.dtos.response.CursorPageResponse;
+import com.instagram.backend.dtos.response.UserDto;
 import com.instagram.backend.entity.ChatMessage;
-import com.instagram.backend.entity.ChatRoom;
-import com.instagram.backend.entity.User;
 import com.instagram.backend.entity.enums.MessageStatus;
 import com.instagram.backend.exception.*;
 import com.instagram.backend.repository.ChatMessageRepository;
+import com.instagram.backend.repository.ChatMessageSearchRepository;
+import com.instagram.backend.repository.ChatReadStateRepository;
 import com.instagram.backend.repository.ChatRoomRepository;
 import com.instagram.backend.repository.UserRepository;
+import com.instagram.backend.repository.projection.ChatMessageView;
+import com.instagram.backend.repository.projection.ConversationView;
+import com.instagram.backend.repository.projection.RoomMembers;
+import com.instagram.backend.utils.KeysetCursor;
+import com.instagram.backend.websocket.ClusterMessagingTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatServiceImpl implements ChatService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ChatRoomRepository chatRoomRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final UserRepository userRepository;
     private final AuthenticationFacade authenticationFacade;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterMessagingTemplate messagingTemplate;
+    private final ChatRoomMembershipCache chatRoomMembershipCache;
+    private final PresenceAudienceCache presenceAudienceCache;
+    private final ChatMessageGroupCommitter groupCommitter;
+    private final ChatReadStateRepository chatReadStateRepository;
+    private final UserSummaryCache userSummaryCache;
+    private final ChatMessageSearchRepository chatMessageSearchRepository;
+    private final MeterRegistry meterRegistry;
+
+    private Timer searchLatency;
+
+    @PostConstruct
+    void registerMetrics() {
+        searchLatency = Timer.builder("chat.search.latency")
+                .description("Time to run one chat full-text search query")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
 
+    /**
+     * ID-only and race-free: a cached pair answers repeated opens, otherwise one INSERT ... ON CONFLICT DO NOTHING
+     * creates the room, and only when a concurrent request won is the existing id read back.
+     */
     @Override
+    @Transactional
     public String findOrCreateChatRoom(Long userOneId, Long userTwoId) {
         if (userOneId.equals(userTwoId)) {
             throw new IllegalArgumentException("Cannot create chat room with same user");
@@ -40,42 +82,43 @@ public class ChatServiceImpl implements ChatService {
         Long firstId = Math.min(userOneId, userTwoId);
         Long secondId = Math.max(userOneId, userTwoId);
 
-        User firstUser = userRepository.findById(firstId)
-                .orElseThrow(() -> new UserNotFoundException("User not found: " + firstId));
-        User secondUser = userRepository.findById(secondId)
-                .orElseThrow(() -> new UserNotFoundException("User not found: " + secondId));
-
-        ChatRoom chatRoom = chatRoomRepository.findByUsers(firstUser, secondUser)
-                .orElseGet(() -> {
-                    ChatRoom newRoom = ChatRoom.builder()
-                            .userOne(firstUser)
-                            .userTwo(secondUser)
-                            .build();
-                    return chatRoomRepository.save(newRoom);
-                });
-
-        return "Chat room created or found with ID: " + chatRoom.getId();
+        Long chatRoomId = chatRoomMembershipCache.findRoomId(firstId, secondId).orElse(null);
+        if (chatRoomId == null) {
+            try {
+                chatRoomId = chatRoomRepository.insertIfAbsent(firstId, secondId);
+            } catch (DataIntegrityViolationException e) {
+                // Foreign key violation: one of the users does not exist
+                throw new UserNotFoundException("User not found: " + firstId + " or " + secondId);
+            }
+            if (chatRoomId == null) {
+                chatRoomId = chatRoomRepository.findIdByUserIds(firstId, secondId)
+                        .orElseThrow(() -> new ChatRoomNotFoundException("Chat room between " + firstId + " and " + secondId + " not found"));
+            }
+            chatRoomMembershipCache.put(chatRoomId, firstId, secondId);
+            presenceAudienceCache.evict(firstId, secondId);
+        }
+
+        return "Chat room created or found with ID: " + chatRoomId;
     }
 
+    /**
+     * Validates membership on cached IDs and persists with ID-only references, so a send is a single INSERT.
+     * Not {@code @Transactional}: the INSERT runs in the repository's own transaction, which is all a send needs,
+     * and {@link #sendMessageAsync} calls this method directly, past any proxy.
+     */
     @Override
-    @Transactional
     public ChatMessageResponseDTO sendMessage(ChatMessageRequestDTO messageRequest) {
-         ChatRoom chatRoom = chatRoomRepository.findById(messageRequest.getChatRoomId())
-                .orElseThrow(() -> new ChatRoomNotFoundException("Chat room not found with id: " + messageRequest.getChatRoomId()));
-
-        User sender = userRepository.findById(messageRequest.getSenderId())
-                .orElseThrow(() -> new UserNotFoundException("Sender not found with id: " + messageRequest.getSenderId()));
-
-        User receiver = userRepository.findById(messageRequest.getReceiverId())
-                .orElseThrow(() -> new UserNotFoundException("Sender not found with id: " + messageRequest.getSenderId()));
+        Long chatRoomId = messageRequest.getChatRoomId();
+        RoomMembers members = chatRoomMembershipCache.get(chatRoomId)
+                .orElseThrow(() -> new ChatRoomNotFoundException("Chat room not found with id: " + chatRoomId));
 
-        validateSenderInChatRoom(sender, chatRoom);
+        validateParticipants(messageRequest.getSenderId(), messageRequest.getReceiverId(), chatRoomId, members);
         validateMessageContent(messageRequest.getContent());
 
         ChatMessage message = ChatMessage.builder()
-                .chatRoom(chatRoom)
-                .sender(sender)
-                .receiver(receiver)
+                .chatRoom(chatRoomRepository.getReferenceById(chatRoomId))
+                .sender(userRepository.getReferenceById(messageRequest.getSenderId()))
+                .receiver(userRepository.getReferenceById(messageRequest.getReceiverId()))
                 .content(messageRequest.getContent())
                 .sentAt(LocalDateTime.now())
                 .status(MessageStatus.SENT)
@@ -86,7 +129,27 @@ public class ChatServiceImpl implements ChatService {
         return mapToResponseDTO(savedMessage);
     }
 
+    /**
+     * Completes once the message is durable. With group commit enabled the insert joins the room's shard
+     * batch; otherwise the message is stored synchronously.
+     */
+    @Override
+    public CompletableFuture<ChatMessageResponseDTO> sendMessageAsync(ChatMessageRequestDTO messageRequest) {
+        if (!groupCommitter.isEnabled()) {
+            return CompletableFuture.completedFuture(sendMessage(messageRequest));
+        }
+
+        Long chatRoomId = messageRequest.getChatRoomId();
+        RoomMembers members = chatRoomMembershipCache.get(chatRoomId)
+                .orElseThrow(() -> new ChatRoomNotFoundException("Chat room not found with id: " + chatRoomId));
+        validateParticipants(messageRequest.getSenderId(), messageRequest.getReceiverId(), chatRoomId, members);
+        validateMessageContent(messageRequest.getContent());
+
+        return groupCommitter.submit(chatRoomId, messageRequest.getSenderId(), messageRequest.getReceiverId(), messageRequest.getContent());
+    }
+
     @Override
+    @Transactional
     public ChatMessageResponseDTO updateMessageStatus(Long messageId, MessageStatus status) {
         ChatMessage message = chatMessageRepository.findById(messageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Message not found with id: " + messageId));
@@ -103,6 +166,9 @@ public class ChatServiceImpl implements ChatService {
             message.setSeenAt(LocalDateTime.now());
         }
 
+        if (status == MessageStatus.SEEN) {
+            chatReadStateRepository.decrementUnread(message.getChatRoom().getId(), message.getReceiver().getId());
+        }
         message.setStatus(status);
 
         ChatMessage updatedMsg = chatMessageRepository.save(message);
@@ -117,38 +183,192 @@ public class ChatServiceImpl implements ChatService {
         return dto;
     }
 
+    /**
+     * Marks every message the current user received in the room up to {@code upToMessageId} as delivered or
+     * seen with one bulk update, advances the user's watermark and broadcasts a single range receipt.
+     */
     @Override
-    public List<ChatMessageResponseDTO> getMessagesByChatRoom(Long chatRoomId) {
-        // Validate that chat room exists
-        ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
+    @Transactional
+    public ChatReceiptResponseDTO markMessagesUpTo(Long chatRoomId, Long upToMessageId, MessageStatus status) {
+        if (status == MessageStatus.SENT) {
+            throw new IllegalArgumentException("Receipts can only mark messages as DELIVERED or SEEN");
+        }
+
+        RoomMembers members = chatRoomMembershipCache.get(chatRoomId)
                 .orElseThrow(() -> new ChatRoomNotFoundException("Chat room not found with id: " + chatRoomId));
+        Long userId = authenticationFacade.getCurrentUserId();
+        if (!members.contains(userId)) {
+            throw new UnauthorizedActionException("User is not a participant in this chat room");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated;
+        if (status == MessageStatus.SEEN) {
+            updated = chatMessageRepository.markSeenUpTo(chatRoomId, userId, upToMessageId, now, MessageStatus.SEEN);
+            chatReadStateRepository.advanceSeen(chatRoomId, userId, upToMessageId, updated);
+        } else {
+            updated = chatMessageRepository.markDeliveredUpTo(
+                    chatRoomId, userId, upToMessageId, now, MessageStatus.SENT, MessageStatus.DELIVERED);
+            chatReadStateRepository.advanceDelivered(chatRoomId, userId, upToMessageId);
+        }
+
+        ChatReceiptResponseDTO receipt = ChatReceiptResponseDTO.builder()
+                .chatRoomId(chatRoomId)
+                .userId(userId)
+                .status(status)
+                .upToMessageId(upToMessageId)
+                .updatedCount(updated)
+                .build();
+
+        if (updated > 0) {
+            messagingTemplate.convertAndSend("/queue/chat/" + chatRoomId + "/receipts", receipt);
+        }
+        log.info("User {} marked {} messages in chat room {} as {} up to message {}",
+                userId, updated, chatRoomId, status, upToMessageId);
+        return receipt;
+    }
 
-        User user = getLoggedInUser();
-        if (!chatRoom.getUserOne().getId().equals(user.getId()) && !chatRoom.getUserTwo().getId().equals(user.getId())) {
+    @Override
+    @Transactional(readOnly = true)
+    public long countUnreadMessages(Long chatRoomId) {
+        Long userId = authenticationFacade.getCurrentUserId();
+        return chatReadStateRepository.findUnreadCount(chatRoomId, userId).orElse(0);
+    }
+
+    /**
+     * Conversations of the current user, most recently active first, read from the denormalized summary.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ConversationResponseDTO> getInbox(String cursor, int limit) {
+        Long userId = authenticationFacade.getCurrentUserId();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<ConversationView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = chatReadStateRepository.findInboxPage(userId, pageable);
+        } else {
+            KeysetCursor.Position position = KeysetCursor.decode(cursor);
+            rows = chatReadStateRepository.findInboxPageBefore(userId, position.timestamp(), position.id(), pageable);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ConversationView> page = rows.subList(0, Math.min(rows.size(), pageSize));
+        Map<Long, UserDto> otherUsers = userSummaryCache.getAll(page.stream().map(ConversationView::getOtherUserId).toList());
+
+        List<ConversationResponseDTO> items = page.stream()
+                .map(row -> ConversationResponseDTO.builder()
+                        .chatRoomId(row.getChatRoomId())
+                        .otherUser(otherUsers.get(row.getOtherUserId()))
+                        .lastMessageId(row.getLastMessageId())
+                        .lastSenderId(row.getLastSenderId())
+                        .lastMessageSnippet(row.getLastMessageSnippet())
+                        .lastMessageAt(row.getLastMessageAt())
+                        .unreadCount(row.getUnreadCount() != null ? row.getUnreadCount() : 0)
+                        .build())
+                .toList();
+        String nextCursor = hasMore
+                ? KeysetCursor.encode(items.get(items.size() - 1).getLastMessageAt(), items.get(items.size() - 1).getChatRoomId())
+                : null;
+
+        return CursorPageResponse.<ConversationResponseDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Ranked full-text search over the messages of every room the current user participates in.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ChatSearchHitDTO> searchMessages(String query, String cursor, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidMessageException("Search query cannot be empty");
+        }
+        Long userId = authenticationFacade.getCurrentUserId();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        long started = System.nanoTime();
+        List<ChatSearchHitDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = chatMessageSearchRepository.search(query, userId, pageSize + 1);
+        } else {
+            KeysetCursor.ScorePosition position = KeysetCursor.decodeScore(cursor);
+            rows = chatMessageSearchRepository.searchAfter(query, userId, position.score(), position.id(), pageSize + 1);
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        searchLatency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ChatSearchHitDTO> items = rows.subList(0, Math.min(rows.size(), pageSize));
+        String nextCursor = hasMore
+                ? KeysetCursor.encodeScore(items.get(items.size() - 1).getRank(), items.get(items.size() - 1).getMessageId())
+                : null;
+
+        log.info("Chat search by user {} returned {} hits in {} ms",
+                userId, items.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        return CursorPageResponse.<ChatSearchHitDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Returns the newest page of the room's history first; pass the returned cursor as {@code before} to scroll back.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ChatMessageResponseDTO> getMessagesByChatRoom(Long chatRoomId, String before, int limit) {
+        if (!chatRoomRepository.existsById(chatRoomId)) {
+            throw new ChatRoomNotFoundException("Chat room not found with id: " + chatRoomId);
+        }
+
+        Long userId = authenticationFacade.getCurrentUserId();
+        if (!chatRoomRepository.isParticipant(chatRoomId, userId)) {
             throw new UnauthorizedActionException("User is not a participant in this chat room");
         }
-        List<ChatMessage> messages = chatMessageRepository.findByChatRoomIdOrderBySentAtAsc(chatRoomId);
 
-        return messages.stream()
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether older messages exist
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<ChatMessageView> rows;
+        if (before == null || before.isBlank()) {
+            rows = chatMessageRepository.findLatestPage(chatRoomId, pageable);
+        } else {
+            KeysetCursor.Position position = KeysetCursor.decode(before);
+            rows = chatMessageRepository.findPageBefore(chatRoomId, position.timestamp(), position.id(), pageable);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ChatMessageResponseDTO> items = rows.stream()
+                .limit(pageSize)
                 .map(this::mapToResponseDTO)
                 .toList();
+        String nextCursor = hasMore
+                ? KeysetCursor.encode(items.get(items.size() - 1).getSentAt(), items.get(items.size() - 1).getId())
+                : null;
+
+        return CursorPageResponse.<ChatMessageResponseDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
 
 //    Utility methods
 
-    private User getLoggedInUser() {
-        String username = authenticationFacade.getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.error("User not found with username: {}", username);
-                    return new UserNotFoundException("User not found with username : " + username);
-                });
-    }
 
-    private void validateSenderInChatRoom(User sender, ChatRoom chatRoom) {
-        if (!sender.equals(chatRoom.getUserOne()) && !sender.equals(chatRoom.getUserTwo())) {
-            throw new InvalidSenderException("Sender (id=" + sender.getId() + ") is not part of chat room (id=" + chatRoom.getId() + ")");
+    private void validateParticipants(Long senderId, Long receiverId, Long chatRoomId, RoomMembers members) {
+        if (!members.contains(senderId)) {
+            throw new InvalidSenderException("Sender (id=" + senderId + ") is not part of chat room (id=" + chatRoomId + ")");
+        }
+        if (!members.otherThan(senderId).equals(receiverId)) {
+            throw new InvalidSenderException("Receiver (id=" + receiverId + ") is not the other participant of chat room (id=" + chatRoomId + ")");
         }
     }
 
@@ -158,6 +378,20 @@ public class ChatServiceImpl implements ChatService {
         }
     }
 
+    private ChatMessageResponseDTO mapToResponseDTO(ChatMessageView message) {
+        return ChatMessageResponseDTO.builder()
+                .id(message.getId())
+                .chatRoomId(message.getChatRoomId())
+                .senderId(message.getSenderId())
+                .receiverId(message.getReceiverId())
+                .content(message.getContent())
+                .sentAt(message.getSentAt())
+                .deliveredAt(message.getDeliveredAt())
+                .seenAt(message.getSeenAt())
+                .status(message.getStatus())
+                .build();
+    }
+
     private ChatMessageResponseDTO mapToResponseDTO(ChatMessage message) {
         return ChatMessageResponseDTO.builder()
                 .id(message.getId())
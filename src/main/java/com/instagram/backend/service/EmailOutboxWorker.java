@@ -0,0 +1,249 @@
+package com.instagram.backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.backend.repository.EmailOutboxRepository;
+import com.instagram.backend.repository.projection.OutboxEmail;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers the email outbox. Each worker claims a batch of due rows with SKIP LOCKED (so nodes and workers never
+ * send the same row), renders them and hands the whole batch to one {@link JavaMailSender#send(MimeMessage...)}
+ * call, which reuses a single SMTP connection. Failed rows are retried with exponential backoff until
+ * email.outbox.max-attempts; a claim is a lease, so rows of a crashed worker become due again. Sent and failed
+ * rows are purged after email.outbox.retention-days.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxWorker {
+
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {
+    };
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final SpringTemplateEngine templateEngine;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${email.outbox.workers:2}")
+    private int workerCount;
+
+    // Messages sent over one SMTP connection
+    @Value("${email.outbox.batch-size:20}")
+    private int batchSize;
+
+    // Fallback poll when no wake-up arrives, e.g. for retries and rows written by other nodes
+    @Value("${email.outbox.poll-ms:1000}")
+    private long pollMillis;
+
+    // How long a claimed row is reserved for the worker that claimed it
+    @Value("${email.outbox.lease-ms:60000}")
+    private long leaseMillis;
+
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.backoff-initial-ms:5000}")
+    private long backoffInitialMillis;
+
+    @Value("${email.outbox.backoff-max-ms:600000}")
+    private long backoffMaxMillis;
+
+    @Value("${email.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::run);
+        }
+        log.info("Email outbox started with {} workers, batches of up to {}", workerCount, batchSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        wakeUps.release(workerCount);
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    public void wakeUp() {
+        if (wakeUps.availablePermits() < workerCount) {
+            wakeUps.release();
+        }
+    }
+
+    @Scheduled(cron = "${email.outbox.cleanup-cron:0 15 4 * * *}")
+    public void deleteFinished() {
+        int deleted = outboxRepository.deleteFinishedBefore(retentionDays);
+        if (deleted > 0) {
+            log.info("Deleted {} sent or failed emails from the outbox", deleted);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                // Keep draining while full batches come back, otherwise wait for a wake-up or the poll interval
+                if (deliverBatch() < batchSize) {
+                    wakeUps.tryAcquire(pollMillis, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Email outbox worker failed: {}", e.getMessage(), e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    int deliverBatch() {
+        List<OutboxEmail> batch = outboxRepository.claimDue(leaseMillis / 1000.0, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<MimeMessage, OutboxEmail> messages = new IdentityHashMap<>();
+        for (OutboxEmail email : batch) {
+            try {
+                messages.put(render(email), email);
+            } catch (Exception e) {
+                // A template or payload that cannot be rendered will not render on retry either
+                markFailed(email, "Rendering failed: " + e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return batch.size();
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = allFailed(messages, e);
+            }
+        } catch (MailException e) {
+            failures = allFailed(messages, e);
+        }
+
+        for (Map.Entry<MimeMessage, OutboxEmail> entry : messages.entrySet()) {
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                markSent(entry.getValue());
+            } else {
+                markForRetry(entry.getValue(), failure);
+            }
+        }
+        return batch.size();
+    }
+
+    private MimeMessage render(OutboxEmail email) throws Exception {
+        Context context = new Context();
+        context.setVariables(objectMapper.readValue(email.variables(), VARIABLES_TYPE));
+        String htmlContent = templateEngine.process(email.template(), context);
+
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED, StandardCharsets.UTF_8.name());
+        helper.setTo(email.recipient());
+        helper.setSubject(email.subject());
+        helper.setText(htmlContent, true);
+        helper.setFrom(new InternetAddress(fromEmail, "InstaClone"));
+        return message;
+    }
+
+    private void markSent(OutboxEmail email) {
+        outboxRepository.markSent(email.id());
+        count(email, "sent");
+        meterRegistry.timer("email.outbox.delivery.lag", "template", email.template())
+                .record(Duration.between(email.createdAt(), LocalDateTime.now()));
+    }
+
+    private void markForRetry(OutboxEmail email, Exception failure) {
+        if (email.attempts() >= maxAttempts) {
+            markFailed(email, failure.getMessage());
+            return;
+        }
+        long backoffMillis = Math.min(backoffMaxMillis, backoffInitialMillis << Math.min(email.attempts() - 1, 20));
+        // Up to 20% jitter so a mail server outage does not end in a synchronized retry storm
+        backoffMillis += ThreadLocalRandom.current().nextLong(backoffMillis / 5 + 1);
+        outboxRepository.markForRetry(email.id(), backoffMillis / 1000.0, failure.getMessage());
+        count(email, "retried");
+        log.warn("Email {} ('{}') to {} failed on attempt {}, retrying in {} ms: {}",
+                email.id(), email.template(), email.recipient(), email.attempts(), backoffMillis, failure.getMessage());
+    }
+
+    private void markFailed(OutboxEmail email, String error) {
+        outboxRepository.markFailed(email.id(), error);
+        count(email, "failed");
+        log.error("Email {} ('{}') to {} failed permanently after {} attempts: {}",
+                email.id(), email.template(), email.recipient(), email.attempts(), error);
+    }
+
+    private void count(OutboxEmail email, String result) {
+        meterRegistry.counter("email.outbox.messages", "template", email.template(), "result", result).increment();
+    }
+
+    private Map<Object, Exception> allFailed(Map<MimeMessage, OutboxEmail> messages, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        messages.keySet().forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
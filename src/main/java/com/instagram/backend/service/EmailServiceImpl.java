@@ -1,51 +1,51 @@
 package com.instagram.backend.service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.InternetAddress;
-import jakarta.mail.internet.MimeMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.backend.repository.EmailOutboxRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
+/**
+ * Writes emails to the outbox, in the caller's transaction when there is one, so requests never wait on
+ * template rendering or the mail server. {@link EmailOutboxWorker} renders and delivers them.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class EmailServiceImpl implements EmailService{
 
-    private final JavaMailSender mailSender;
-    private final SpringTemplateEngine templateEngine;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final EmailOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final EmailOutboxWorker outboxWorker;
 
     @Override
     public void sendEmail(String to, String subject, String templateName, Map<String, Object> variables) {
-        Context context = new Context();
-        context.setVariables(variables);
-
-        String htmlContent = templateEngine.process(templateName, context);
-
-        MimeMessage message = mailSender.createMimeMessage();
-
+        String payload;
         try {
-            MimeMessageHelper helper = new MimeMessageHelper(message, MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED, StandardCharsets.UTF_8.name());
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-            helper.setFrom(new InternetAddress(fromEmail, "InstaClone"));
+            payload = objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize email variables", e);
+        }
 
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send email", e);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+        outboxRepository.insert(to, subject, templateName, payload);
+        log.debug("Queued '{}' email to {}", templateName, to);
+
+        // Wake a worker once the row is visible instead of waiting for the next poll
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxWorker.wakeUp();
+                }
+            });
+        } else {
+            outboxWorker.wakeUp();
         }
     }
 }
@@ -6,10 +6,8 @@ import com.instagram.backend.entity.HashTag;
 import com.instagram.backend.entity.Post;
 import com.instagram.backend.entity.User;
 import com.instagram.backend.exception.NoFollowedUsersException;
-import com.instagram.backend.exception.UserNotFoundException;
 import com.instagram.backend.repository.PostRepository;
 import com.instagram.backend.repository.UserConnectionRepository;
-import com.instagram.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -24,16 +22,13 @@ import java.util.List;
 @Slf4j
 public class FeedServiceImpl implements FeedService{
 
-    private final UserRepository userRepository;
     private final PostRepository postRepository;
     private final UserConnectionRepository userConnectionRepository;
     private final AuthenticationFacade authenticationFacade;
 
     @Override
     public ApiResponse<List<PostResponseDto>> getUserFeed(Instant lastFetched, int size) {
-        User currentUser = getLoggedInUser();
-
-        List<User> followedUsers = userConnectionRepository.findFollowedUsers(currentUser.getId());
+        List<User> followedUsers = userConnectionRepository.findFollowedUsers(authenticationFacade.getCurrentUserId());
         if (followedUsers.isEmpty()) {
             throw new NoFollowedUsersException("You are not following any users yet.");
         }
@@ -51,15 +46,6 @@ public class FeedServiceImpl implements FeedService{
 
 //    Utility methods
 
-    private User getLoggedInUser() {
-        String username = authenticationFacade.getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.error("User not found: {}", username);
-                    return new UserNotFoundException("User not found with username : " + username);
-                });
-    }
-
     private PostResponseDto mapToDtoWithUsername(Post post) {
         PostResponseDto dto = new PostResponseDto();
 
@@ -57,7 +57,7 @@ public class PostActivityServiceImpl implements PostActivityService{
         postRepository.save(post);
 
         if(!post.getUser().equals(currentUser)) {
-            notificationService.sendNotification(currentUser, post.getUser(), NotificationType.LIKE);
+            notificationService.sendNotification(currentUser, post.getUser(), NotificationType.LIKE, post.getId());
         }
 
         return ApiResponse.success("Post liked successfully.");
@@ -68,15 +68,15 @@ public class PostActivityServiceImpl implements PostActivityService{
     @Transactional
     public ApiResponse<String> unlikePost(Long postId) {
         Post post = getPostOrThrow(postId);
-        User currentUser = getLoggedInUser();
+        Long currentUserId = authenticationFacade.getCurrentUserId();
 
-        log.info("User [{}] is unliking Post [{}]", currentUser.getUsername(), postId);
+        log.info("User [{}] is unliking Post [{}]", authenticationFacade.getCurrentUsername(), postId);
 
-        if(!likeRepository.existsByPostIdAndUserId(postId, currentUser.getId())) {
+        if(!likeRepository.existsByPostIdAndUserId(postId, currentUserId)) {
             throw new NotLikedPostException("You have not liked this post");
         }
 
-        likeRepository.deleteByPostIdAndUserId(postId, currentUser.getId());
+        likeRepository.deleteByPostIdAndUserId(postId, currentUserId);
         post.setLikeCount(Math.max(0, post.getLikeCount() - 1));
         postRepository.save(post);
 
@@ -107,7 +107,7 @@ public class PostActivityServiceImpl implements PostActivityService{
         postRepository.save(post);
 
         if(!post.getUser().equals(currentUser)) {
-            notificationService.sendNotification(currentUser, post.getUser(), NotificationType.COMMENT);
+            notificationService.sendNotification(currentUser, post.getUser(), NotificationType.COMMENT, post.getId());
         }
 
 
@@ -126,7 +126,7 @@ public class PostActivityServiceImpl implements PostActivityService{
                     mentionRepository.save(mention);
 
                     // Send notification
-                    notificationService.sendNotification(currentUser, mentionedUser, NotificationType.MENTIONED_IN_COMMENT);
+                    notificationService.sendNotification(currentUser, mentionedUser, NotificationType.MENTIONED_IN_COMMENT, post.getId());
                 }
             }
         }
@@ -199,14 +199,7 @@ public class PostActivityServiceImpl implements PostActivityService{
     }
 
     private User getLoggedInUser() {
-        String username = authenticationFacade.getAuthentication().getName();
-        log.debug("Authenticated username: {}", username);
-
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.error("User not found with username: {}", username);
-                    return new UserNotFoundException("User not found with username : " + username);
-                });
+        return authenticationFacade.getCurrentUser();
     }
 
     private CommentResponse mapToDto(Comment comment, User currentUser) {
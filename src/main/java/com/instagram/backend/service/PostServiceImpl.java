@@ -150,8 +150,7 @@ public class PostServiceImpl implements PostService {
      */
     @Override
     public ApiResponse<List<PostResponseDto>> getPostsOfLoggedInUser() {
-        User loggedInUser = getLoggedInUser();
-        List<PostResponseDto> posts = postRepository.findByUser_IdOrderByCreatedAtDesc(loggedInUser.getId()).stream()
+        List<PostResponseDto> posts = postRepository.findByUser_IdOrderByCreatedAtDesc(authenticationFacade.getCurrentUserId()).stream()
                 .map(this::mapToDtoWithUsername)
                 .toList();
         return ApiResponse.success(posts, "User's posts fetched successfully");
@@ -256,19 +255,14 @@ public class PostServiceImpl implements PostService {
 
                 Mention savedMention = mentionRepository.save(mention);
                 mentionEntities.add(savedMention);
-                notificationService.sendNotification(author, mentionedUser, NotificationType.MENTIONED_IN_POST);
+                notificationService.sendNotification(author, mentionedUser, NotificationType.MENTIONED_IN_POST, post.getId());
             });
         });
         post.setMentions(mentionEntities);
     }
 
     private User getLoggedInUser() {
-        String username = authenticationFacade.getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.error("User not found: {}", username);
-                    return new UserNotFoundException("User not found with username : " + username);
-                });
+        return authenticationFacade.getCurrentUser();
     }
 
     private Post findPostById(Long postId) {
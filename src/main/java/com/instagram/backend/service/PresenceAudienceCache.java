@@ -0,0 +1,75 @@
+package com.instagram.backend.service;
+
+import com.instagram.backend.repository.ChatRoomRepository;
+import com.instagram.backend.repository.UserConnectionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded LRU cache of the users who see someone's presence: their chat peers and, when enabled, their mutual
+ * followers. Evicted when a chat room or connection involving the user changes, and expires after a TTL as a backstop.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceAudienceCache {
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final UserConnectionRepository userConnectionRepository;
+
+    @Value("${websocket.presence.audience-cache.max-size:50000}")
+    private int maxSize;
+
+    @Value("${websocket.presence.audience-cache.ttl-ms:600000}")
+    private long ttlMillis;
+
+    @Value("${websocket.presence.include-mutual-followers:false}")
+    private boolean includeMutualFollowers;
+
+    private final Map<Long, CachedAudience> cache = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedAudience> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    public Set<Long> getAudience(Long userId) {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CachedAudience cached = cache.get(userId);
+            if (cached != null && now - cached.loadedAt() < ttlMillis) {
+                return cached.userIds();
+            }
+        }
+
+        Set<Long> audience = new HashSet<>(chatRoomRepository.findPeerIds(userId));
+        if (includeMutualFollowers) {
+            audience.addAll(userConnectionRepository.findMutualFollowerIds(userId));
+        }
+        log.debug("Loaded presence audience of user [{}]: {} users", userId, audience.size());
+
+        Set<Long> userIds = Set.copyOf(audience);
+        synchronized (cache) {
+            cache.put(userId, new CachedAudience(userIds, now));
+        }
+        return userIds;
+    }
+
+    public void evict(Long... userIds) {
+        synchronized (cache) {
+            for (Long userId : userIds) {
+                cache.remove(userId);
+            }
+        }
+    }
+
+    private record CachedAudience(Set<Long> userIds, long loadedAt) {
+    }
+}
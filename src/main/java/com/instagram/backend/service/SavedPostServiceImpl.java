@@ -8,11 +8,9 @@ import com.instagram.backend.entity.User;
 import com.instagram.backend.exception.ResourceNotFoundException;
 import com.instagram.backend.repository.PostRepository;
 import com.instagram.backend.repository.SavedPostRepository;
-import com.instagram.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,7 +21,6 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SavedPostServiceImpl implements SavedPostService{
 
-    private final UserRepository userRepository;
     private final SavedPostRepository savedPostRepository;
     private final PostRepository postRepository;
     private final AuthenticationFacade authenticationFacade;
@@ -35,7 +32,7 @@ public class SavedPostServiceImpl implements SavedPostService{
      */
     @Override
     public ApiResponse<String> savePost(Long postId) {
-        User user = getLoggedInUser();
+        User user = authenticationFacade.getCurrentUserReference();
         Post post = getPostById(postId);
         if (savedPostRepository.existsByUserAndPost(user, post)) {
             throw new IllegalArgumentException("Post already saved");
@@ -54,7 +51,7 @@ public class SavedPostServiceImpl implements SavedPostService{
      */
     @Override
     public ApiResponse<String> unSavePost(Long postId) {
-        User user = getLoggedInUser();
+        User user = authenticationFacade.getCurrentUserReference();
         Post post = getPostById(postId);
         savedPostRepository.deleteByUserAndPost(user, post);
         return ApiResponse.success("Post unsaved successfully");
@@ -66,7 +63,7 @@ public class SavedPostServiceImpl implements SavedPostService{
      */
     @Override
     public ApiResponse<List<PostResponseDto>> getSavedPosts() {
-        User user = getLoggedInUser();
+        User user = authenticationFacade.getCurrentUserReference();
         List<PostResponseDto> response = savedPostRepository.findByUserOrderBySavedAtDesc(user)
                 .stream()
                 .map(saved -> mapToDtoWithUsername(saved.getPost()))
@@ -77,12 +74,6 @@ public class SavedPostServiceImpl implements SavedPostService{
 
 
     //===============UTILITY METHODS======================
-    private User getLoggedInUser() {
-        String username = authenticationFacade.getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-    }
-
     private Post getPostById(Long postId) {
         return postRepository.findById(postId)
                 .orElseThrow(() -> {
@@ -29,6 +29,7 @@ public class UserConnectionServiceImpl implements UserConnectionService{
     private final UserConnectionRepository userConnectionRepository;
     private final AuthenticationFacade authenticationFacade;
     private final NotificationService notificationService;
+    private final PresenceAudienceCache presenceAudienceCache;
 
     /**
      * Allows the logged-in user to follow another user.
@@ -112,6 +113,7 @@ public class UserConnectionServiceImpl implements UserConnectionService{
                 .orElseThrow(() -> new NotFollowingException("You are not following this user."));
 
         userConnectionRepository.delete(connection);
+        presenceAudienceCache.evict(fromUser.getId(), toUser.getId());
         log.info("User {} unfollowed user {}", fromUser.getId(), toUser.getId());
         notificationService.sendNotification(fromUser, toUser, NotificationType.UNFOLLOW);
         return ApiResponse.success("Unfollowed successfully.");
@@ -226,8 +228,8 @@ public class UserConnectionServiceImpl implements UserConnectionService{
      */
     @Override
     public ApiResponse<Boolean> isFollowingUser(Long userId) {
-        User currentUser = getLoggedInUser();
-        boolean isFollowing = userConnectionRepository.existsByFromUserIdAndToUserIdAndConnectionType(currentUser.getId(), userId, ConnectionType.FOLLOW);
+        boolean isFollowing = userConnectionRepository.existsByFromUserIdAndToUserIdAndConnectionType(
+                authenticationFacade.getCurrentUserId(), userId, ConnectionType.FOLLOW);
         return ApiResponse.success(isFollowing, "Following status retrieved.");
     }
 
@@ -248,6 +250,7 @@ public class UserConnectionServiceImpl implements UserConnectionService{
         List<UserConnection> connections = userConnectionRepository.findAllByFromUserAndToUser(fromUser, toUser);
         if (!connections.isEmpty()) {
             userConnectionRepository.deleteAll(connections);
+            presenceAudienceCache.evict(fromUser.getId(), toUser.getId());
             log.info("Deleted all existing connections from user {} to user {}", fromUser.getId(), toUser.getId());
         }
     }
@@ -266,13 +269,15 @@ public class UserConnectionServiceImpl implements UserConnectionService{
         connection.setToUser(toUser);
         connection.setConnectionType(type);
         userConnectionRepository.save(connection);
+        presenceAudienceCache.evict(fromUser.getId(), toUser.getId());
     }
 
     private User getLoggedInUser() {
-        String username = authenticationFacade.getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .filter(User::isEnabled)
-                .orElseThrow(() -> new UserNotFoundException("User not found or not enabled with username: " + username));
+        User user = authenticationFacade.getCurrentUser();
+        if (!user.isEnabled()) {
+            throw new UserNotFoundException("User not found or not enabled with username: " + user.getUsername());
+        }
+        return user;
     }
 
     private User validateToUser(Long toUserId) {
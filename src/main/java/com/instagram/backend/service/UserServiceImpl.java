@@ -18,6 +18,7 @@ import org.modelmapper.ModelMapper;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
 import java.util.List;
@@ -41,6 +42,7 @@ public class UserServiceImpl implements UserService {
      * Allows the logged-in user to change their password after verifying the old one.
      */
     @Override
+    @Transactional
     public ApiResponse<String> changePassword(ChangePasswordRequest request) {
         log.info("Change password request received.");
 
@@ -88,10 +90,10 @@ public class UserServiceImpl implements UserService {
     @Override
     public ApiResponse<UserSearchResponse> searchUsersByUsername(String username) {
         log.info("Searching users by username containing: {}", username);
-        User currentUser = getLoggedInUser();
+        Long currentUserId = authenticationFacade.getCurrentUserId();
 
         List<UserDto> userDtoList = userRepository.findByUsernameContainingIgnoreCase(username).stream()
-                .filter(user -> !user.isPrivateProfile() || user.getId().equals(currentUser.getId()))
+                .filter(user -> !user.isPrivateProfile() || user.getId().equals(currentUserId))
                 .map(user -> UserDto.builder()
                         .id(user.getId())
                         .username(user.getUsername())
@@ -149,12 +151,7 @@ public class UserServiceImpl implements UserService {
      * Returns the currently authenticated user from the security context.
      */
     private User getLoggedInUser() {
-        String username = authenticationFacade.getAuthentication().getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.error("User not found: {}", username);
-                    return new UserNotFoundException("User not found with username : " + username);
-                });
+        return authenticationFacade.getCurrentUser();
     }
 
 
@@ -225,7 +222,7 @@ public class UserServiceImpl implements UserService {
                 "password-changed",
                 variables
         );
-        log.info("Password change email sent to {}", user.getEmail());
+        log.info("Password change email queued for {}", user.getEmail());
     }
 
 }
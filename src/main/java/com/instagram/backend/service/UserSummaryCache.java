@@ -0,0 +1,88 @@
+package com.instagram.backend.service;
+
+import com.instagram.backend.dtos.response.UserDto;
+import com.instagram.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded LRU cache of (id, username, profile image) used to resolve users referenced by ID in a single batch.
+ * Entries expire after a TTL so renames eventually show up without explicit invalidation.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserSummaryCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${user-summary-cache.max-size:50000}")
+    private int maxSize;
+
+    @Value("${user-summary-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private final Map<Long, CachedSummary> cache = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedSummary> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    /**
+     * Returns the summaries of the given users, loading every miss with one query. Unknown IDs are absent.
+     */
+    public Map<Long, UserDto> getAll(Collection<Long> userIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, UserDto> result = new HashMap<>();
+        Set<Long> misses = new HashSet<>();
+
+        synchronized (cache) {
+            for (Long userId : userIds) {
+                if (userId == null) {
+                    continue;
+                }
+                CachedSummary cached = cache.get(userId);
+                if (cached != null && now - cached.loadedAt() < ttlMillis) {
+                    result.put(userId, cached.summary());
+                } else {
+                    misses.add(userId);
+                }
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            log.debug("Loading {} user summaries", misses.size());
+            Map<Long, CachedSummary> loaded = new HashMap<>();
+            for (UserDto summary : userRepository.findSummariesByIdIn(misses)) {
+                result.put(summary.getId(), summary);
+                loaded.put(summary.getId(), new CachedSummary(summary, now));
+            }
+            synchronized (cache) {
+                cache.putAll(loaded);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * For a future rename path; there is none yet, since tokens identify users by username.
+     */
+    public void evict(Long userId) {
+        synchronized (cache) {
+            cache.remove(userId);
+        }
+    }
+
+    private record CachedSummary(UserDto summary, long loadedAt) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.instagram.backend.utils;
+
+import com.instagram.backend.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Node-local store capped at otp.session-store.max-sessions. Expiry is driven by a hashed timing wheel: each tick
+ * only visits the sessions due in its slot, so cleanup cost does not grow with the number of live sessions.
+ * Lookups also check the deadline, so a session is never served after its TTL even between ticks.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.session-store.backend", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOtpSessionStore implements OtpSessionStore {
+
+    private final long ttlMillis;
+    private final long tickMillis;
+    private final int maxSessions;
+
+    private final Map<String, OtpSession> sessions = new ConcurrentHashMap<>();
+
+    // Sessions whose deadline was (re)armed since the last tick; only the ticker thread touches the wheel itself
+    private final Queue<OtpSession> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final List<List<OtpSession>> wheel;
+    private final int mask;
+    private long currentTick;
+
+    public InMemoryOtpSessionStore(@Value("${otp.session-store.ttl-ms:300000}") long ttlMillis,
+                                   @Value("${otp.session-store.tick-ms:1000}") long tickMillis,
+                                   @Value("${otp.session-store.wheel-size:512}") int wheelSize,
+                                   @Value("${otp.session-store.max-sessions:100000}") int maxSessions) {
+        this.ttlMillis = ttlMillis;
+        this.tickMillis = tickMillis;
+        this.maxSessions = maxSessions;
+
+        int slots = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.mask = slots - 1;
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    @Override
+    public void save(String tempToken, String username) {
+        if (sessions.size() >= maxSessions) {
+            log.warn("OTP session store is full ({} sessions), rejecting login", maxSessions);
+            throw new TooManyRequestsException("Too many pending logins. Please try again shortly.");
+        }
+        OtpSession session = new OtpSession(tempToken, username, System.currentTimeMillis() + ttlMillis);
+        sessions.put(tempToken, session);
+        pendingTimeouts.add(session);
+    }
+
+    @Override
+    public String getUsername(String tempToken) {
+        OtpSession session = live(tempToken);
+        return session != null ? session.username : null;
+    }
+
+    @Override
+    public void refresh(String tempToken) {
+        OtpSession session = live(tempToken);
+        if (session != null) {
+            // The wheel entry notices the later deadline when its slot comes due and reschedules itself
+            session.deadline = System.currentTimeMillis() + ttlMillis;
+        }
+    }
+
+    @Override
+    public int recordFailedAttempt(String tempToken) {
+        OtpSession session = live(tempToken);
+        return session != null ? session.failedAttempts.incrementAndGet() : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void remove(String tempToken) {
+        sessions.remove(tempToken);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Advances the wheel by one slot and removes the sessions in it whose deadline has passed.
+     */
+    @Scheduled(fixedRateString = "${otp.session-store.tick-ms:1000}")
+    public synchronized void tick() {
+        long now = System.currentTimeMillis();
+        OtpSession armed;
+        while ((armed = pendingTimeouts.poll()) != null) {
+            schedule(armed, now);
+        }
+
+        int expired = 0;
+        List<OtpSession> extended = new ArrayList<>();
+        Iterator<OtpSession> slot = wheel.get((int) (currentTick & mask)).iterator();
+        while (slot.hasNext()) {
+            OtpSession session = slot.next();
+            if (session.remainingRounds > 0) {
+                session.remainingRounds--;
+                continue;
+            }
+            slot.remove();
+            if (sessions.get(session.tempToken) != session) {
+                continue; // removed or replaced by a newer session for the same token
+            }
+            if (session.deadline <= now) {
+                if (sessions.remove(session.tempToken, session)) {
+                    expired++;
+                }
+            } else {
+                extended.add(session);
+            }
+        }
+        currentTick++;
+        extended.forEach(session -> schedule(session, now));
+
+        if (expired > 0) {
+            log.debug("Expired {} OTP sessions, {} live", expired, sessions.size());
+        }
+    }
+
+    private void schedule(OtpSession session, long now) {
+        long delayTicks = Math.max(1, (session.deadline - now + tickMillis - 1) / tickMillis);
+        long target = currentTick + delayTicks;
+        session.remainingRounds = (delayTicks - 1) / wheel.size();
+        wheel.get((int) (target & mask)).add(session);
+    }
+
+    private OtpSession live(String tempToken) {
+        OtpSession session = sessions.get(tempToken);
+        if (session == null) {
+            return null;
+        }
+        if (session.deadline <= System.currentTimeMillis()) {
+            sessions.remove(tempToken, session);
+            return null;
+        }
+        return session;
+    }
+
+    private static final class OtpSession {
+        private final String tempToken;
+        private final String username;
+        private final AtomicInteger failedAttempts = new AtomicInteger();
+        private volatile long deadline;
+        // Full wheel rotations left before the slot is due; ticker thread only
+        private long remainingRounds;
+
+        private OtpSession(String tempToken, String username, long deadline) {
+            this.tempToken = tempToken;
+            this.username = username;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.instagram.backend.utils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Shared store on the otp_sessions table, so the OTP can be verified on any node. Expired rows are invisible
+ * to lookups and deleted in the background.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.session-store.backend", havingValue = "jdbc")
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcOtpSessionStore implements OtpSessionStore {
+
+    private static final String SAVE_SQL = """
+            INSERT INTO otp_sessions (temp_token, username, failed_attempts, expires_at)
+            VALUES (?, ?, 0, now() + make_interval(secs => ?))
+            ON CONFLICT (temp_token) DO UPDATE
+            SET username = EXCLUDED.username, failed_attempts = 0, expires_at = EXCLUDED.expires_at
+            """;
+
+    private static final String RECORD_FAILED_ATTEMPT_SQL = """
+            UPDATE otp_sessions SET failed_attempts = failed_attempts + 1
+            WHERE temp_token = ? AND expires_at > now()
+            RETURNING failed_attempts
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${otp.session-store.ttl-ms:300000}")
+    private long ttlMillis;
+
+    @Override
+    public void save(String tempToken, String username) {
+        jdbcTemplate.update(SAVE_SQL, tempToken, username, ttlMillis / 1000.0);
+    }
+
+    @Override
+    public String getUsername(String tempToken) {
+        List<String> usernames = jdbcTemplate.queryForList(
+                "SELECT username FROM otp_sessions WHERE temp_token = ? AND expires_at > now()", String.class, tempToken);
+        return usernames.isEmpty() ? null : usernames.get(0);
+    }
+
+    @Override
+    public void refresh(String tempToken) {
+        jdbcTemplate.update("UPDATE otp_sessions SET expires_at = now() + make_interval(secs => ?) WHERE temp_token = ? AND expires_at > now()",
+                ttlMillis / 1000.0, tempToken);
+    }
+
+    @Override
+    public int recordFailedAttempt(String tempToken) {
+        List<Integer> attempts = jdbcTemplate.queryForList(RECORD_FAILED_ATTEMPT_SQL, Integer.class, tempToken);
+        return attempts.isEmpty() ? Integer.MAX_VALUE : attempts.get(0);
+    }
+
+    @Override
+    public void remove(String tempToken) {
+        jdbcTemplate.update("DELETE FROM otp_sessions WHERE temp_token = ?", tempToken);
+    }
+
+    @Scheduled(fixedDelayString = "${otp.session-store.cleanup-ms:60000}")
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM otp_sessions WHERE expires_at <= now()");
+        if (deleted > 0) {
+            log.debug("Deleted {} expired OTP sessions", deleted);
+        }
+    }
+}
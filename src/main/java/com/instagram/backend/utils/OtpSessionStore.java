@@ -1,28 +1,35 @@
 package com.instagram.backend.utils;
 
-import org.springframework.stereotype.Component;
-
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-@Component
-public class OtpSessionStore {
-
-    private final Map<String, String> store = new ConcurrentHashMap<>();
-
-    public void save(String tempToken, String username) {
-        store.put(tempToken, username);
-    }
-
-    public String getUsername(String tempToken) {
-        return store.get(tempToken);
-    }
-
-    public void remove(String tempToken) {
-        store.remove(tempToken);
-    }
-
-    public boolean exists(String tempToken) {
-        return store.containsKey(tempToken);
+/**
+ * Pending logins between password check and OTP verification, keyed by the temp token handed to the client.
+ * Sessions expire after otp.session-store.ttl-ms. The backend is selected with otp.session-store.backend
+ * (memory or jdbc; jdbc shares sessions between nodes).
+ */
+public interface OtpSessionStore {
+
+    /**
+     * Starts a session. Throws {@link com.instagram.backend.exception.TooManyRequestsException} when the store is full.
+     */
+    void save(String tempToken, String username);
+
+    /**
+     * Username of a live session, or null when the token is unknown or expired.
+     */
+    String getUsername(String tempToken);
+
+    /**
+     * Restarts the TTL of a live session, e.g. after an OTP resend. Attempt counts are kept.
+     */
+    void refresh(String tempToken);
+
+    /**
+     * Counts a wrong OTP and returns the failed attempts so far, or Integer.MAX_VALUE when the session is gone.
+     */
+    int recordFailedAttempt(String tempToken);
+
+    void remove(String tempToken);
+
+    default boolean exists(String tempToken) {
+        return getUsername(tempToken) != null;
     }
 }
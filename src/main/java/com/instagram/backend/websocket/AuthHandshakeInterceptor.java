@@ -1,31 +1,31 @@
 package com.instagram.backend.websocket;
 
-import com.instagram.backend.entity.User;
-import com.instagram.backend.exception.UserNotFoundException;
-import com.instagram.backend.repository.UserRepository;
-import com.instagram.backend.security.CustomUserDetailsService;
 import com.instagram.backend.security.JwtService;
+import com.instagram.backend.security.VerifiedToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 
 import java.security.Principal;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
+/**
+ * Authorizes the handshake from the token's claims alone: the signed userId becomes the principal, so opening
+ * a socket costs no database round trip.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class AuthHandshakeInterceptor implements HandshakeInterceptor {
 
     private final JwtService tokenProvider;
-    private final UserRepository userRepository;
-    private final CustomUserDetailsService userDetailsService;
 
     @Override
     public boolean beforeHandshake(ServerHttpRequest request,
@@ -49,32 +49,29 @@ public class AuthHandshakeInterceptor implements HandshakeInterceptor {
         String token = query.substring(query.indexOf("token=") + 6);
         log.info("Extracted token from query: {}", token);
 
-        String username = tokenProvider.extractUsername(token);
-        if (username == null) {
-            log.warn("Token does not contain a valid username.");
-            return false;
-        }
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        if (userDetails == null) {
-            log.warn("UserDetails not found for username: {}", username);
+        VerifiedToken verified;
+        try {
+            verified = tokenProvider.verify(token);
+        } catch (Exception e) {
+            log.warn("Invalid or expired token: {}", e.getMessage());
             return false;
         }
 
-        if (!tokenProvider.validateToken(token, userDetails)) {
-            log.warn("Invalid or expired token for user: {}", username);
+        // Refresh tokens carry no userId and must not open a socket
+        Long userId = verified.userId();
+        if (userId == null || verified.isExpired(System.currentTimeMillis())) {
+            log.warn("Token does not contain a valid userId.");
             return false;
         }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.warn("User not found in database: {}", username);
-                    return new UserNotFoundException("User not found in database: " + username);
-                });
-
         attributes.put("token", token);
-        attributes.put("user", new StompPrincipal(user.getId().toString()));
+        List<Locale> acceptedLocales = request.getHeaders().getAcceptLanguageAsLocales();
+        if (!acceptedLocales.isEmpty()) {
+            attributes.put(RecipientLocales.LOCALE_ATTRIBUTE, acceptedLocales.get(0));
+        }
+        attributes.put("user", new StompPrincipal(userId.toString()));
 
-        log.info("WebSocket handshake authorized for userId: {}", user.getId());
+        log.info("WebSocket handshake authorized for userId: {}", userId);
         return true;
     }
 
@@ -0,0 +1,235 @@
+package com.instagram.backend.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional cross-node fan-out for the node-local simple broker. Outgoing STOMP payloads are batched and
+ * published with Postgres NOTIFY; every other node LISTENs and delivers them to its own sessions. Batches
+ * too large for a NOTIFY payload are written to websocket_relay_spill and announced by id.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterMessageRelay {
+
+    private static final String CHANNEL = "websocket_relay";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final SimpMessagingTemplate localMessagingTemplate;
+
+    @Value("${websocket.cluster-relay.enabled:false}")
+    private boolean enabled;
+
+    @Value("${websocket.cluster-relay.flush-interval-ms:10}")
+    private long flushIntervalMillis;
+
+    @Value("${websocket.cluster-relay.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${websocket.cluster-relay.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // Postgres rejects NOTIFY payloads of 8000 bytes or more
+    @Value("${websocket.cluster-relay.max-notify-bytes:7500}")
+    private int maxNotifyBytes;
+
+    @Value("${websocket.cluster-relay.spill-retention-minutes:5}")
+    private int spillRetentionMinutes;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private BlockingQueue<RelayMessage> outbox;
+    private Thread publisher;
+    private Thread listener;
+    private volatile boolean running;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        outbox = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+
+        publisher = new Thread(this::runPublisher, "websocket-relay-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+        listener = new Thread(this::runListener, "websocket-relay-listener");
+        listener.setDaemon(true);
+        listener.start();
+        log.info("WebSocket cluster relay started on node {}", nodeId);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (publisher != null) {
+            publisher.interrupt();
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Queues a payload for delivery on the other nodes; {@code user} is null for broadcast destinations.
+     */
+    public void publish(String user, String destination, Object payload) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            RelayMessage message = new RelayMessage(user, destination, objectMapper.valueToTree(payload));
+            if (!outbox.offer(message)) {
+                log.warn("WebSocket relay queue full, dropping message for {}", destination);
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Could not serialize WebSocket payload for {}: {}", destination, e.getMessage());
+        }
+    }
+
+    private void runPublisher() {
+        List<RelayMessage> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                RelayMessage first = outbox.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Give concurrent publishers a moment to join the same NOTIFY
+                Thread.sleep(flushIntervalMillis);
+                outbox.drainTo(batch, maxBatchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Failed to relay {} WebSocket messages: {}", batch.size(), e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<RelayMessage> batch) throws Exception {
+        ObjectNode envelope = objectMapper.createObjectNode().put("node", nodeId);
+        ArrayNode messages = envelope.putArray("messages");
+        for (RelayMessage message : batch) {
+            messages.addObject()
+                    .put("user", message.user())
+                    .put("destination", message.destination())
+                    .set("payload", message.payload());
+        }
+        String json = objectMapper.writeValueAsString(envelope);
+
+        if (json.getBytes(StandardCharsets.UTF_8).length > maxNotifyBytes) {
+            Long spillId = jdbcTemplate.queryForObject(
+                    "INSERT INTO websocket_relay_spill (payload) VALUES (?) RETURNING id", Long.class, json);
+            json = objectMapper.writeValueAsString(
+                    objectMapper.createObjectNode().put("node", nodeId).put("spill", spillId));
+        }
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, CHANNEL, json);
+    }
+
+    private void runListener() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                // The listening connection is held for as long as it stays healthy
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for WebSocket relay messages on channel {}", CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        deliver(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.error("WebSocket relay listener failed, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliver(String json) {
+        try {
+            JsonNode envelope = objectMapper.readTree(json);
+            if (nodeId.equals(envelope.path("node").asText())) {
+                return;
+            }
+            if (envelope.has("spill")) {
+                String spilled = jdbcTemplate.queryForObject(
+                        "SELECT payload FROM websocket_relay_spill WHERE id = ?", String.class, envelope.get("spill").asLong());
+                envelope = objectMapper.readTree(spilled);
+            }
+
+            // The simple broker drops messages for users and destinations without local subscribers
+            for (JsonNode message : envelope.path("messages")) {
+                String destination = message.get("destination").asText();
+                JsonNode payload = message.get("payload");
+                if (message.hasNonNull("user")) {
+                    localMessagingTemplate.convertAndSendToUser(message.get("user").asText(), destination, payload);
+                } else {
+                    localMessagingTemplate.convertAndSend(destination, payload);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to deliver relayed WebSocket messages: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.cluster-relay.spill-cleanup-ms:60000}")
+    public void purgeSpilledBatches() {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM websocket_relay_spill WHERE created_at < now() - make_interval(mins => ?)",
+                spillRetentionMinutes);
+    }
+
+    private record RelayMessage(String user, String destination, JsonNode payload) {
+    }
+}
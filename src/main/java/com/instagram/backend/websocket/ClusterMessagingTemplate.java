@@ -0,0 +1,71 @@
+package com.instagram.backend.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Sends to the local simple broker and, when the cluster relay is enabled, to the sessions on every other node.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClusterMessagingTemplate {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterMessageRelay clusterMessageRelay;
+    private final OnlineUserService onlineUserService;
+    private final PresenceRegistry presenceRegistry;
+
+    public void convertAndSend(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        clusterMessageRelay.publish(null, destination, payload);
+    }
+
+    public void convertAndSendToUser(String user, String destination, Object payload) {
+        messagingTemplate.convertAndSendToUser(user, destination, payload);
+        if (clusterMessageRelay.isEnabled() && isOnOtherNode(user)) {
+            clusterMessageRelay.publish(user, destination, payload);
+        }
+    }
+
+    /**
+     * Pushes the same payload to many users. Which of them are on other nodes is resolved with one batched
+     * registry lookup instead of one per user.
+     */
+    public void convertAndSendToUsers(Collection<Long> userIds, String destination, Object payload) {
+        for (Long userId : userIds) {
+            messagingTemplate.convertAndSendToUser(userId.toString(), destination, payload);
+        }
+        if (!clusterMessageRelay.isEnabled() || userIds.isEmpty()) {
+            return;
+        }
+        Collection<Long> elsewhere = presenceRegistry.seesOtherNodes() ? presenceRegistry.onlineElsewhere(userIds) : userIds;
+        for (Long userId : elsewhere) {
+            clusterMessageRelay.publish(userId.toString(), destination, payload);
+        }
+    }
+
+    /**
+     * Whether a push to the user can reach a session, i.e. they are online on any node the presence registry sees.
+     */
+    public boolean isReachable(Long userId) {
+        return onlineUserService.isUserOnline(userId);
+    }
+
+    /**
+     * Users offline everywhere are not relayed, so pushes to them cost no NOTIFY. Without a cluster-wide
+     * presence backend other nodes are unknown, so every push is relayed.
+     */
+    private boolean isOnOtherNode(String user) {
+        if (!presenceRegistry.seesOtherNodes()) {
+            return true;
+        }
+        try {
+            return presenceRegistry.isOnlineElsewhere(Long.valueOf(user));
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+}
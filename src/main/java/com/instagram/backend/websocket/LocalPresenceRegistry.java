@@ -0,0 +1,33 @@
+package com.instagram.backend.websocket;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Single-node backend: there are no other nodes, so nobody is online elsewhere.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.presence.backend", havingValue = "local", matchIfMissing = true)
+public class LocalPresenceRegistry implements PresenceRegistry {
+
+    @Override
+    public void userOnline(Long userId) {
+    }
+
+    @Override
+    public void userOffline(Long userId) {
+    }
+
+    @Override
+    public boolean isOnlineElsewhere(Long userId) {
+        return false;
+    }
+
+    @Override
+    public Set<Long> onlineElsewhere(Collection<Long> userIds) {
+        return Set.of();
+    }
+}
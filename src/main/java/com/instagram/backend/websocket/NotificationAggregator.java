@@ -0,0 +1,218 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.entity.enums.NotificationType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Coalesces bursts of notifications keyed by (recipient, type, target) into a single row per window.
+ * The first event of a window is persisted and pushed right away, later events in the same window
+ * are only counted in memory and written back with one update and one push when the window closes.
+ * A window opened while the key was pushed less than a window ago (sustained activity) defers its first
+ * push to its close as well, so a key gets at most one push per window length.
+ */
+@Component
+@Slf4j
+public class NotificationAggregator {
+
+    public static final int MAX_LATEST_ACTORS = 3;
+
+    // Distinct actors remembered per window; beyond this every further event counts as a new actor
+    static final int MAX_TRACKED_ACTORS = 1000;
+
+    // Types where many actors hitting the same target collapse into "X and N others ..."
+    private static final Set<NotificationType> AGGREGATED_TYPES = EnumSet.of(
+            NotificationType.LIKE,
+            NotificationType.COMMENT,
+            NotificationType.FOLLOW,
+            NotificationType.MENTIONED_IN_COMMENT
+    );
+
+    @Value("${notification.aggregation.window-ms:60000}")
+    private long windowMillis;
+
+    private final Map<AggregationKey, AggregationWindow> openWindows = new ConcurrentHashMap<>();
+
+    // Windows replaced by a newer one before the flusher got to them
+    private final Queue<AggregationWindow> closedWindows = new ConcurrentLinkedQueue<>();
+
+    // When each key last had a window written back and pushed; pruned once older than a window
+    private final Map<AggregationKey, Long> lastFlushedAt = new ConcurrentHashMap<>();
+
+    public boolean supports(NotificationType type) {
+        return AGGREGATED_TYPES.contains(type);
+    }
+
+    /**
+     * Registers an event. Returns the newly opened window when the caller has to persist a new notification
+     * (and push it unless {@link AggregationWindow#isPushDeferred()}), or null when the event was absorbed
+     * into a window that is already open.
+     */
+    public AggregationWindow accept(Long recipientId, NotificationType type, Long targetId, Long actorId) {
+        AggregationKey key = new AggregationKey(recipientId, type, targetId);
+        long now = System.currentTimeMillis();
+        AggregationWindow[] opened = new AggregationWindow[1];
+
+        openWindows.compute(key, (k, current) -> {
+            if (current != null && !current.hasExpired(now, windowMillis)) {
+                current.coalesce(actorId, now);
+                return current;
+            }
+            // The replaced window's pending actors are about to be pushed, or a flush just pushed this key
+            boolean deferPush = current != null && current.hasPendingActors() || recentlyFlushed(k, now);
+            if (current != null) {
+                closedWindows.add(current);
+            }
+            opened[0] = new AggregationWindow(k, actorId, now, deferPush);
+            return opened[0];
+        });
+
+        if (opened[0] == null) {
+            log.debug("Coalesced '{}' from user [{}] into open window for recipient [{}]", type, actorId, recipientId);
+        }
+        return opened[0];
+    }
+
+    /**
+     * Removes every expired window and returns those that still owe a push: they absorbed events after their
+     * notification was pushed, or their first push was deferred.
+     */
+    public List<AggregationWindow> drainExpired() {
+        long now = System.currentTimeMillis();
+        List<AggregationWindow> expired = new ArrayList<>();
+
+        AggregationWindow closed;
+        while ((closed = closedWindows.poll()) != null) {
+            expired.add(closed);
+        }
+        openWindows.forEach((key, window) -> {
+            if (window.hasExpired(now, windowMillis) && openWindows.remove(key, window)) {
+                expired.add(window);
+            }
+        });
+
+        expired.removeIf(window -> window.getNotificationId() == null
+                || !window.hasPendingActors() && !window.isPushDeferred());
+        expired.forEach(window -> lastFlushedAt.put(window.getKey(), now));
+        lastFlushedAt.values().removeIf(flushedAt -> now - flushedAt >= windowMillis);
+        return expired;
+    }
+
+    /**
+     * Forgets a window whose notification was never persisted, so the next event opens a fresh one
+     * instead of coalescing into a window that can never be written back.
+     */
+    public void abandon(AggregationWindow window) {
+        if (window != null && openWindows.remove(window.getKey(), window)) {
+            log.debug("Abandoned aggregation window for recipient [{}]", window.getKey().recipientId());
+        }
+    }
+
+    private boolean recentlyFlushed(AggregationKey key, long now) {
+        Long flushedAt = lastFlushedAt.get(key);
+        return flushedAt != null && now - flushedAt < windowMillis;
+    }
+
+    public int openWindowCount() {
+        return openWindows.size();
+    }
+
+    public record AggregationKey(Long recipientId, NotificationType type, Long targetId) {
+    }
+
+    public static class AggregationWindow {
+        private final AggregationKey key;
+        private final long openedAt;
+        private final boolean pushDeferred;
+        private final Deque<Long> latestActorIds = new ArrayDeque<>(MAX_LATEST_ACTORS);
+        private final Set<Long> distinctActorIds = new HashSet<>();
+        private volatile Long notificationId;
+        private int actorCount;
+        private int pendingActors;
+        private long lastEventAt;
+
+        AggregationWindow(AggregationKey key, Long actorId, long now, boolean pushDeferred) {
+            this.key = key;
+            this.openedAt = now;
+            this.pushDeferred = pushDeferred;
+            this.actorCount = 1;
+            this.lastEventAt = now;
+            this.latestActorIds.addFirst(actorId);
+            this.distinctActorIds.add(actorId);
+        }
+
+        /**
+         * Counts actors, not events: the same user liking, unliking and liking again is one actor.
+         */
+        synchronized void coalesce(Long actorId, long now) {
+            boolean newActor = distinctActorIds.size() < MAX_TRACKED_ACTORS
+                    ? distinctActorIds.add(actorId)
+                    : !distinctActorIds.contains(actorId);
+            if (newActor) {
+                actorCount++;
+                pendingActors++;
+            }
+            lastEventAt = now;
+            latestActorIds.remove(actorId);
+            latestActorIds.addFirst(actorId);
+            if (latestActorIds.size() > MAX_LATEST_ACTORS) {
+                latestActorIds.removeLast();
+            }
+        }
+
+        boolean hasExpired(long now, long windowMillis) {
+            return now - openedAt >= windowMillis;
+        }
+
+        synchronized boolean hasPendingActors() {
+            return pendingActors > 0;
+        }
+
+        /**
+         * Whether the notification is persisted without a push and pushed when the window closes instead.
+         */
+        public boolean isPushDeferred() {
+            return pushDeferred;
+        }
+
+        public void attach(Long notificationId) {
+            this.notificationId = notificationId;
+        }
+
+        public Long getNotificationId() {
+            return notificationId;
+        }
+
+        public AggregationKey getKey() {
+            return key;
+        }
+
+        public synchronized int getActorCount() {
+            return actorCount;
+        }
+
+        public synchronized List<Long> getLatestActorIds() {
+            return List.copyOf(latestActorIds);
+        }
+
+        public synchronized LocalDateTime getLastEventAt() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(lastEventAt), ZoneId.systemDefault());
+        }
+    }
+}
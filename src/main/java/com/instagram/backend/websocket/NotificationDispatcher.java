@@ -0,0 +1,401 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.dtos.response.NotificationResponse;
+import com.instagram.backend.dtos.response.UserDto;
+import com.instagram.backend.service.UserSummaryCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Persists and pushes notifications off the request thread. Events are picked up after the producing
+ * transaction commits, run through the {@link NotificationAggregator}, queued on a bounded in-process queue
+ * and drained by worker threads that insert with JDBC batches and push over WebSocket.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO notifications (sender_id, recipient_id, type, target_id, actor_count, latest_actor_ids, created_at, is_read)
+            VALUES (?, ?, ?, ?, ?, ?, ?, false)
+            """;
+
+    private static final String UPDATE_AGGREGATE_SQL = """
+            UPDATE notifications
+            SET actor_count = ?, latest_actor_ids = ?, created_at = ?, is_read = false
+            WHERE id = ?
+            """;
+
+    /**
+     * What to do with a new notification when the queue is full.
+     */
+    public enum OverflowPolicy {
+        // Persist and push on the publishing thread, slowing producers down to the workers' pace
+        CALLER_RUNS,
+        // Evict the oldest queued notification to make room
+        DROP_OLDEST,
+        // Reject the new notification
+        DROP_NEWEST
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClusterMessagingTemplate messagingTemplate;
+    private final NotificationAggregator notificationAggregator;
+    private final MeterRegistry meterRegistry;
+    private final UnreadCountTracker unreadCountTracker;
+    private final NotificationTextRenderer textRenderer;
+    private final UserSummaryCache userSummaryCache;
+    private final RecipientLocales recipientLocales;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${notification.dispatch.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${notification.dispatch.workers:2}")
+    private int workerCount;
+
+    @Value("${notification.dispatch.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${notification.dispatch.overflow-policy:CALLER_RUNS}")
+    private OverflowPolicy overflowPolicy;
+
+    private BlockingQueue<PendingNotification> queue;
+    private ExecutorService workers;
+    private volatile boolean running;
+    private TransactionTemplate callerTransaction;
+
+    private DistributionSummary batchSizes;
+    private Timer dispatchLatency;
+    private Counter droppedNotifications;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        callerTransaction = new TransactionTemplate(transactionManager);
+        callerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("notification.dispatch.queue.depth", queue, BlockingQueue::size)
+                .description("Notifications waiting to be persisted and pushed")
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("notification.dispatch.batch.size")
+                .description("Notifications written per JDBC batch")
+                .register(meterRegistry);
+        dispatchLatency = Timer.builder("notification.dispatch.latency")
+                .description("Time from publication to WebSocket push")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        droppedNotifications = Counter.builder("notification.dispatch.dropped")
+                .description("Notifications discarded because the queue was full")
+                .tag("policy", overflowPolicy.name())
+                .register(meterRegistry);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatch-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::runWorker);
+        }
+        log.info("Notification dispatcher started with {} workers, queue capacity {}, overflow policy {}",
+                workerCount, queueCapacity, overflowPolicy);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+
+        List<PendingNotification> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += maxBatchSize) {
+            dispatchBatch(remaining.subList(from, Math.min(from + maxBatchSize, remaining.size())));
+        }
+        log.info("Notification dispatcher stopped, flushed {} queued notifications", remaining.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationEvent(NotificationEvent event) {
+        NotificationAggregator.AggregationWindow window = null;
+        if (notificationAggregator.supports(event.type())) {
+            window = notificationAggregator.accept(event.recipientId(), event.type(), event.targetId(), event.senderId());
+            if (window == null) {
+                log.debug("'{}' notification for user [{}] coalesced into the current aggregation window",
+                        event.type(), event.recipientId());
+                return;
+            }
+        }
+        enqueue(new PendingNotification(event, window));
+    }
+
+    private void enqueue(PendingNotification pending) {
+        if (queue.offer(pending)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case CALLER_RUNS -> dispatchOnCaller(pending);
+            case DROP_OLDEST -> {
+                while (!queue.offer(pending)) {
+                    PendingNotification evicted = queue.poll();
+                    if (evicted != null) {
+                        droppedNotifications.increment();
+                        notificationAggregator.abandon(evicted.window());
+                    }
+                }
+            }
+            case DROP_NEWEST -> {
+                droppedNotifications.increment();
+                notificationAggregator.abandon(pending.window());
+                log.warn("Notification queue full, dropping '{}' notification for user [{}]",
+                        pending.event().type(), pending.event().recipientId());
+            }
+        }
+    }
+
+    private void runWorker() {
+        List<PendingNotification> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                PendingNotification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                dispatchBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Failed to dispatch batch of {} notifications: {}", batch.size(), e.getMessage(), e);
+                abandonUnpersisted(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Runs inside the publisher's afterCommit callback, where the finished transaction's connection is still
+     * bound: the insert needs a transaction of its own, and a failure must not reach a request that has committed.
+     */
+    private void dispatchOnCaller(PendingNotification pending) {
+        List<PendingNotification> batch = List.of(pending);
+        try {
+            List<Long> ids = callerTransaction.execute(status -> insert(batch));
+            publish(batch, ids);
+        } catch (Exception e) {
+            droppedNotifications.increment();
+            log.error("Failed to dispatch '{}' notification for user [{}] on the caller: {}",
+                    pending.event().type(), pending.event().recipientId(), e.getMessage(), e);
+            abandonUnpersisted(batch);
+        }
+    }
+
+    // Windows whose row was never written would otherwise swallow every actor coalesced into them
+    private void abandonUnpersisted(List<PendingNotification> batch) {
+        for (PendingNotification pending : batch) {
+            if (pending.window() != null && pending.window().getNotificationId() == null) {
+                notificationAggregator.abandon(pending.window());
+            }
+        }
+    }
+
+    private void dispatchBatch(List<PendingNotification> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        publish(batch, insert(batch));
+    }
+
+    private List<Long> insert(List<PendingNotification> batch) {
+        batchSizes.record(batch.size());
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        NotificationEvent event = batch.get(i).event();
+                        ps.setLong(1, event.senderId());
+                        ps.setLong(2, event.recipientId());
+                        ps.setString(3, event.type().name());
+                        ps.setObject(4, event.targetId(), Types.BIGINT);
+                        ps.setInt(5, 1);
+                        ps.setString(6, event.senderId().toString());
+                        ps.setTimestamp(7, Timestamp.valueOf(event.createdAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                },
+                keyHolder
+        );
+
+        return keyHolder.getKeyList().stream()
+                .map(key -> ((Number) key.get("id")).longValue())
+                .toList();
+    }
+
+    private void publish(List<PendingNotification> batch, List<Long> ids) {
+        for (int i = 0; i < batch.size(); i++) {
+            PendingNotification pending = batch.get(i);
+            NotificationEvent event = pending.event();
+            Long id = ids.get(i);
+            if (pending.window() != null) {
+                pending.window().attach(id);
+                if (pending.window().isPushDeferred()) {
+                    // The flush pushes this row when its window closes
+                    continue;
+                }
+            }
+
+            pushToUser(event.recipientId(), NotificationResponse.builder()
+                    .id(id)
+                    .senderId(event.senderId())
+                    .senderUsername(event.senderUsername())
+                    .message(textRenderer.render(event.type(), event.senderUsername(), 1, recipientLocales.localeOf(event.recipientId())))
+                    .type(event.type())
+                    .createdAt(event.createdAt())
+                    .isRead(false)
+                    .targetId(event.targetId())
+                    .actorCount(1)
+                    .latestActors(List.of(event.senderUsername()))
+                    .build());
+            dispatchLatency.record(System.nanoTime() - event.publishedAtNanos(), TimeUnit.NANOSECONDS);
+        }
+        Map<Long, List<UnreadCountTracker.InsertedNotification>> insertedPerRecipient = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            NotificationEvent event = batch.get(i).event();
+            insertedPerRecipient.computeIfAbsent(event.recipientId(), id -> new ArrayList<>())
+                    .add(new UnreadCountTracker.InsertedNotification(ids.get(i), event.createdAt()));
+        }
+        insertedPerRecipient.forEach(unreadCountTracker::added);
+        log.debug("Dispatched batch of {} notifications", batch.size());
+    }
+
+    /**
+     * Writes back and pushes the actors coalesced into aggregation windows that have closed.
+     */
+    @Scheduled(fixedDelayString = "${notification.aggregation.flush-interval-ms:1000}")
+    public void flushAggregatedNotifications() {
+        List<NotificationAggregator.AggregationWindow> windows = notificationAggregator.drainExpired();
+        if (windows.isEmpty()) {
+            return;
+        }
+
+        Set<Long> actorIds = new HashSet<>();
+        windows.forEach(window -> actorIds.addAll(window.getLatestActorIds()));
+        Map<Long, UserDto> actors = userSummaryCache.getAll(actorIds);
+
+        List<Object[]> updates = new ArrayList<>(windows.size());
+        List<NotificationResponse> payloads = new ArrayList<>(windows.size());
+        for (NotificationAggregator.AggregationWindow window : windows) {
+            NotificationAggregator.AggregationKey key = window.getKey();
+            List<Long> latestActorIds = window.getLatestActorIds();
+            List<String> latestActors = latestActorIds.stream()
+                    .map(actors::get)
+                    .filter(Objects::nonNull)
+                    .map(UserDto::getUsername)
+                    .toList();
+            String latestActor = latestActors.isEmpty() ? null : latestActors.get(0);
+
+            updates.add(new Object[]{
+                    window.getActorCount(),
+                    latestActorIds.stream().map(String::valueOf).collect(Collectors.joining(",")),
+                    Timestamp.valueOf(window.getLastEventAt()),
+                    window.getNotificationId()
+            });
+            payloads.add(NotificationResponse.builder()
+                    .id(window.getNotificationId())
+                    .senderId(latestActorIds.get(0))
+                    .senderUsername(latestActor)
+                    .message(textRenderer.render(key.type(), latestActor, window.getActorCount(), recipientLocales.localeOf(key.recipientId())))
+                    .type(key.type())
+                    .createdAt(window.getLastEventAt())
+                    .isRead(false)
+                    .targetId(key.targetId())
+                    .actorCount(window.getActorCount())
+                    .latestActors(latestActors)
+                    .build());
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_AGGREGATE_SQL, updates);
+        for (int i = 0; i < windows.size(); i++) {
+            Long recipientId = windows.get(i).getKey().recipientId();
+            pushToUser(recipientId, payloads.get(i));
+            // The row was bumped back to unread, possibly above the read watermark
+            unreadCountTracker.invalidate(recipientId);
+        }
+        log.info("Flushed {} aggregated notifications", windows.size());
+    }
+
+    private void pushToUser(Long recipientId, NotificationResponse payload) {
+        if (!messagingTemplate.isReachable(recipientId)) {
+            log.debug("User [{}] is offline. Notification stored in DB for later retrieval.", recipientId);
+            return;
+        }
+
+        try {
+            messagingTemplate.convertAndSendToUser(
+                    recipientId.toString(),
+                    "/queue/notifications",
+                    payload
+            );
+            log.debug("WebSocket notification sent to user [{}]", recipientId);
+        } catch (Exception ex) {
+            log.error("Error sending WebSocket notification to user [{}]: {}", recipientId, ex.getMessage());
+        }
+    }
+
+    private record PendingNotification(NotificationEvent event, NotificationAggregator.AggregationWindow window) {
+    }
+}
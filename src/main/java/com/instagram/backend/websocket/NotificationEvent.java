@@ -0,0 +1,18 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.entity.enums.NotificationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link NotificationService#sendNotification} and handled by {@link NotificationDispatcher}
+ * once the producing transaction has committed. Carries IDs only so no entity crosses threads.
+ */
+public record NotificationEvent(Long senderId,
+                                String senderUsername,
+                                Long recipientId,
+                                NotificationType type,
+                                Long targetId,
+                                LocalDateTime createdAt,
+                                long publishedAtNanos) {
+}
@@ -0,0 +1,186 @@
+package com.instagram.backend.websocket;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of the notifications table: creates upcoming partitions,
+ * compacts read notifications of old months into notification_summaries (served by
+ * GET /notifications/summaries) and drops or archives partitions past the retention period.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationPartitionManager {
+
+    private static final String PARTITION_PREFIX = "notifications_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile("^notifications_p(\\d{4})_(\\d{2})$");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = 'notifications'
+            """;
+
+    private static final String DEFAULT_PARTITION = "notifications_default";
+
+    private static final String PARTITION_EXISTS_SQL = "SELECT to_regclass(?) IS NOT NULL";
+
+    private static final String MOVE_FROM_DEFAULT_SQL = """
+            WITH moved AS (
+                DELETE FROM notifications_default
+                WHERE created_at >= ? AND created_at < ?
+                RETURNING *
+            )
+            INSERT INTO %s SELECT * FROM moved
+            """;
+
+    // Moves read rows of one partition into the per-user monthly summary in a single statement
+    private static final String COMPACT_SQL = """
+            WITH compacted AS (
+                DELETE FROM %s n
+                USING users u
+                WHERE u.id = n.recipient_id
+                  AND (n.is_read OR n.created_at <= u.notifications_read_until)
+                RETURNING n.recipient_id, n.type, n.actor_count
+            )
+            INSERT INTO notification_summaries (user_id, month, type, notification_count, actor_count)
+            SELECT recipient_id, ?, type, COUNT(*), SUM(actor_count)
+            FROM compacted
+            GROUP BY recipient_id, type
+            ON CONFLICT (user_id, month, type) DO UPDATE
+            SET notification_count = notification_summaries.notification_count + EXCLUDED.notification_count,
+                actor_count = notification_summaries.actor_count + EXCLUDED.actor_count
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Months of partitions created ahead of the current one
+    @Value("${notification.partitions.premake-months:3}")
+    private int premakeMonths;
+
+    // Months kept before a partition is dropped or archived
+    @Value("${notification.partitions.retention-months:12}")
+    private int retentionMonths;
+
+    // Detach expired partitions as standalone archive tables instead of dropping them
+    @Value("${notification.partitions.archive-expired:false}")
+    private boolean archiveExpired;
+
+    // Read notifications older than this many months are compacted into summaries
+    @Value("${notification.partitions.compact-after-months:3}")
+    private int compactAfterMonths;
+
+    // Months of history served by the inbox, so inbox queries prune to recent partitions
+    @Value("${notification.inbox.months:3}")
+    private int inboxMonths;
+
+    /**
+     * Oldest createdAt the inbox reads. Aligned to a partition boundary so queries touch only recent partitions.
+     */
+    public LocalDateTime inboxHorizon() {
+        return YearMonth.now().minusMonths(inboxMonths).atDay(1).atStartOfDay();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${notification.partitions.cron:0 30 3 * * *}")
+    public void maintainPartitions() {
+        try {
+            createUpcomingPartitions();
+            compactAndExpire();
+        } catch (Exception e) {
+            log.error("Notification partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.plusMonths(1).atDay(1);
+            String partition = partitionName(month);
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(PARTITION_EXISTS_SQL, Boolean.class, partition))) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> createPartition(partition, from, to));
+        }
+    }
+
+    /**
+     * Creating a partition fails while the DEFAULT partition holds rows in its range, so those rows are moved
+     * into the new table before it is attached. Runs in one transaction, so the rows are never missing.
+     */
+    private void createPartition(String partition, LocalDate from, LocalDate to) {
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE notifications INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update(MOVE_FROM_DEFAULT_SQL.formatted(partition), from, to);
+        jdbcTemplate.execute("ALTER TABLE notifications ATTACH PARTITION " + partition
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        if (moved > 0) {
+            log.warn("Moved {} notifications from {} into new partition {}", moved, DEFAULT_PARTITION, partition);
+        }
+    }
+
+    private void compactAndExpire() {
+        YearMonth current = YearMonth.now();
+        YearMonth retentionCutoff = current.minusMonths(retentionMonths);
+        YearMonth compactionCutoff = current.minusMonths(compactAfterMonths);
+
+        List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+
+            if (month.isBefore(retentionCutoff)) {
+                expire(partition, month);
+            } else if (month.isBefore(compactionCutoff)) {
+                int summaries = jdbcTemplate.update(COMPACT_SQL.formatted(partition), month.atDay(1));
+                if (summaries > 0) {
+                    log.info("Compacted read notifications of {} into {} summaries", partition, summaries);
+                }
+            }
+        }
+    }
+
+    private void expire(String partition, YearMonth month) {
+        if (archiveExpired) {
+            String archive = "notifications_archive_" + month.format(PARTITION_SUFFIX);
+            jdbcTemplate.execute("ALTER TABLE notifications DETACH PARTITION " + partition);
+            jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO " + archive);
+            log.info("Archived notification partition {} as {}", partition, archive);
+        } else {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+            log.info("Dropped expired notification partition {}", partition);
+        }
+    }
+
+    private String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
@@ -2,7 +2,9 @@ package com.instagram.backend.websocket;
 
 
 import com.instagram.backend.dtos.response.ApiResponse;
+import com.instagram.backend.dtos.response.CursorPageResponse;
 import com.instagram.backend.dtos.response.NotificationResponse;
+import com.instagram.backend.dtos.response.NotificationSummaryResponse;
 import com.instagram.backend.entity.User;
 import com.instagram.backend.entity.enums.NotificationType;
 
@@ -10,7 +12,11 @@ import java.util.List;
 
 public interface NotificationService {
     void sendNotification(User fromUser, User toUser, NotificationType type);
-    ApiResponse<List<NotificationResponse>> getNotificationsForUser();
+    void sendNotification(User fromUser, User toUser, NotificationType type, Long targetId);
+    ApiResponse<CursorPageResponse<NotificationResponse>> getNotificationsForUser(String cursor, int limit);
     ApiResponse<String> markAllAsRead();
+    ApiResponse<String> markAsRead(Long notificationId);
     ApiResponse<Long> countUnreadNotifications();
+    ApiResponse<List<NotificationSummaryResponse>> getNotificationSummaries();
+    void replayMissedNotifications(Long userId, Long lastSeenNotificationId, String sessionId);
 }
@@ -1,23 +1,43 @@
 package com.instagram.backend.websocket;
 
 import com.instagram.backend.dtos.response.ApiResponse;
+import com.instagram.backend.dtos.response.CursorPageResponse;
+import com.instagram.backend.dtos.response.NotificationReplayResponse;
 import com.instagram.backend.dtos.response.NotificationResponse;
-import com.instagram.backend.entity.Notification;
+import com.instagram.backend.dtos.response.NotificationSummaryResponse;
+import com.instagram.backend.dtos.response.UserDto;
 import com.instagram.backend.entity.User;
 import com.instagram.backend.entity.enums.NotificationType;
 import com.instagram.backend.exception.UserNotFoundException;
 import com.instagram.backend.repository.NotificationRepository;
+import com.instagram.backend.repository.NotificationSummaryRepository;
 import com.instagram.backend.repository.UserRepository;
+import com.instagram.backend.repository.projection.NotificationView;
 import com.instagram.backend.service.AuthenticationFacade;
+import com.instagram.backend.service.UserSummaryCache;
+import com.instagram.backend.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -25,123 +45,234 @@ import java.util.stream.Collectors;
 @Slf4j
 public class NotificationServiceImpl implements NotificationService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    // Retention is bounded, so this covers every month and type a user can have
+    private static final int MAX_SUMMARY_ROWS = 500;
+    private static final LocalDateTime NEVER_READ = LocalDateTime.of(1970, 1, 1, 0, 0);
+    public static final String REPLAY_DESTINATION = "/queue/notifications/replay";
+
     private final NotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final OnlineUserService onlineUserService;
+    private final NotificationSummaryRepository notificationSummaryRepository;
     private final AuthenticationFacade authenticationFacade;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UnreadCountTracker unreadCountTracker;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationPartitionManager partitionManager;
+    private final NotificationTextRenderer textRenderer;
+    private final UserSummaryCache userSummaryCache;
+    private final RecipientLocales recipientLocales;
+
+    @Value("${notification.replay.max-items:100}")
+    private int replayMaxItems;
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void sendNotification(User fromUser, User toUser, NotificationType type) {
-        log.info("Preparing to send '{}' notification from '{}' to '{}'", type, fromUser.getUsername(), toUser.getUsername());
-
-        String message = createNotificationMessage(fromUser.getUsername(), type);
-
-        Notification notification = Notification.builder()
-                .sender(fromUser)
-                .recipient(toUser)
-                .message(message)
-                .type(type)
-                .createdAt(LocalDateTime.now())
-                .isRead(false)
-                .build();
-
-        notificationRepository.save(notification);
-        log.info("Notification saved to DB: {}", notification);
-
-        Long recipientId = toUser.getId();
-        String recipientIdStr = recipientId.toString();
-
-        if (onlineUserService.isUserOnline(recipientId)) {
-            log.info("User '{}' is online. Sending WebSocket notification...", toUser.getUsername());
-
-            try {
-                messagingTemplate.convertAndSendToUser(
-                        recipientIdStr,
-                        "/queue/notifications",
-                        toDto(notification)
-                );
-                log.info("WebSocket notification sent to user '{}'", toUser.getUsername());
-            } catch (Exception ex) {
-                log.error("Error sending WebSocket notification to user '{}': {}", toUser.getUsername(), ex.getMessage());
-                // Optionally handle failure
-            }
-        } else {
-            log.info("User '{}' is offline. Notification stored in DB for later retrieval.", toUser.getUsername());
-        }
+        sendNotification(fromUser, toUser, type, null);
     }
 
-    private String createNotificationMessage(String fromUsername, NotificationType type) {
-        return switch (type) {
-            case FOLLOW -> fromUsername + " followed you.";
-            case UNFOLLOW -> fromUsername + " unfollowed you.";
-            case BLOCK -> fromUsername + " blocked you.";
-            case UNBLOCK -> fromUsername + " unblocked you.";
-            case FOLLOW_BACK -> fromUsername + " followed you back.";
-            case LIKE -> fromUsername + " liked your post.";
-            case COMMENT -> fromUsername + " commented on your post.";
-            case MENTIONED_IN_POST -> fromUsername + " mentioned you in a post.";
-            case MENTIONED_IN_COMMENT -> fromUsername + " mentioned you in a comment.";
-            default -> fromUsername + " sent a notification.";
-        };
+    /**
+     * Publishes the notification; persisting and pushing happen in {@link NotificationDispatcher}
+     * after the caller's transaction commits, so they never add to its latency.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void sendNotification(User fromUser, User toUser, NotificationType type, Long targetId) {
+        log.info("Publishing '{}' notification from '{}' to '{}'", type, fromUser.getUsername(), toUser.getUsername());
+
+        eventPublisher.publishEvent(new NotificationEvent(
+                fromUser.getId(),
+                fromUser.getUsername(),
+                toUser.getId(),
+                type,
+                targetId,
+                LocalDateTime.now(),
+                System.nanoTime()
+        ));
     }
 
     @Override
-    public ApiResponse<List<NotificationResponse>> getNotificationsForUser() {
+    @Transactional(readOnly = true)
+    public ApiResponse<CursorPageResponse<NotificationResponse>> getNotificationsForUser(String cursor, int limit) {
         User user = getLoggedInUser();
-        log.info("Fetching notifications for user: {}", user.getUsername());
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        log.info("Fetching notifications for user: {} (cursor={}, limit={})", user.getUsername(), cursor, pageSize);
+
+        // Fetch one extra row to know whether another page exists
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<NotificationView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notificationRepository.findInboxPage(user.getId(), partitionManager.inboxHorizon(), pageable);
+        } else {
+            KeysetCursor.Position position = KeysetCursor.decode(cursor);
+            rows = notificationRepository.findInboxPageBefore(
+                    user.getId(), position.timestamp(), position.id(), partitionManager.inboxHorizon(), pageable);
+        }
 
-        List<Notification> notifications = notificationRepository.findByRecipientIdOrderByCreatedAtDesc(user.getId());
-        List<NotificationResponse> response = notifications.stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        boolean hasMore = rows.size() > pageSize;
+        List<NotificationResponse> items = toDtos(
+                rows.subList(0, Math.min(rows.size(), pageSize)), readWatermarkOf(user), LocaleContextHolder.getLocale());
+        String nextCursor = hasMore
+                ? KeysetCursor.encode(items.get(items.size() - 1).getCreatedAt(), items.get(items.size() - 1).getId())
+                : null;
 
-        log.info("Fetched {} notifications for user '{}'", response.size(), user.getUsername());
-        return ApiResponse.success(response, "Notifications fetched successfully");
+        log.info("Fetched {} notifications for user '{}'", items.size(), user.getUsername());
+        return ApiResponse.success(
+                CursorPageResponse.<NotificationResponse>builder()
+                        .items(items)
+                        .nextCursor(nextCursor)
+                        .hasMore(hasMore)
+                        .build(),
+                "Notifications fetched successfully");
     }
 
+    /**
+     * Moves the user's read watermark to now, a single-row update regardless of inbox size.
+     */
     @Override
     public ApiResponse<String> markAllAsRead() {
         User user = getLoggedInUser();
         log.info("Marking all notifications as read for user: {}", user.getUsername());
 
-        notificationRepository.markAllAsRead(user.getId());
+        LocalDateTime readUntil = LocalDateTime.now();
+        userRepository.updateNotificationsReadUntil(user.getId(), readUntil);
+        unreadCountTracker.markedAllRead(user.getId(), readUntil);
         log.info("All notifications marked as read for user '{}'", user.getUsername());
 
         return ApiResponse.success("All notifications marked as read.");
     }
 
+    @Override
+    public ApiResponse<String> markAsRead(Long notificationId) {
+        User user = getLoggedInUser();
+        log.info("Marking notification {} as read for user: {}", notificationId, user.getUsername());
+
+        int updated = notificationRepository.markAsRead(notificationId, user.getId(), readWatermarkOf(user));
+        if (updated > 0) {
+            unreadCountTracker.markedRead(user.getId());
+        }
+
+        return ApiResponse.success("Notification marked as read.");
+    }
+
     @Override
     public ApiResponse<Long> countUnreadNotifications() {
         User user = getLoggedInUser();
         log.info("Counting unread notifications for user: {}", user.getUsername());
 
-        Long count = notificationRepository.countUnreadByReceiverId(user.getId());
+        long count = unreadCountTracker.getUnreadCount(user.getId());
         log.info("User '{}' has {} unread notifications", user.getUsername(), count);
 
         return ApiResponse.success(count, "Unread notification count.");
     }
 
-    private NotificationResponse toDto(Notification notification) {
-        log.debug("Mapping notification to DTO: {}", notification);
+    /**
+     * Monthly counts of read notifications that were compacted out of partitions older than the inbox.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<List<NotificationSummaryResponse>> getNotificationSummaries() {
+        Long userId = authenticationFacade.getCurrentUserId();
+        List<NotificationSummaryResponse> summaries = notificationSummaryRepository.findByUserId(userId, MAX_SUMMARY_ROWS);
+        return ApiResponse.success(summaries, "Notification summaries fetched.");
+    }
+
+    /**
+     * Pushes the notifications a reconnecting client missed as one frame to that session only.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void replayMissedNotifications(Long userId, Long lastSeenNotificationId, String sessionId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id : " + userId));
+
+        Pageable pageable = PageRequest.of(0, replayMaxItems + 1);
+        LocalDateTime horizon = partitionManager.inboxHorizon();
+        List<NotificationView> rows = notificationRepository.findCreatedAtByIdAndRecipientId(lastSeenNotificationId, userId, horizon)
+                .map(lastSeenAt -> notificationRepository.findCreatedAfter(userId, lastSeenAt, pageable))
+                .orElseGet(() -> notificationRepository.findIdAfter(userId, lastSeenNotificationId, horizon, pageable));
+
+        boolean truncated = rows.size() > replayMaxItems;
+        List<NotificationResponse> missed = toDtos(
+                rows.subList(0, Math.min(rows.size(), replayMaxItems)), readWatermarkOf(user), recipientLocales.localeOf(userId));
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+
+        messagingTemplate.convertAndSendToUser(
+                userId.toString(),
+                REPLAY_DESTINATION,
+                NotificationReplayResponse.builder()
+                        .notifications(missed)
+                        .truncated(truncated)
+                        .unreadCount(unreadCountTracker.getUnreadCount(userId))
+                        .build(),
+                headers.getMessageHeaders()
+        );
+        log.info("Replayed {} missed notifications to user [{}] session {} (truncated={})",
+                missed.size(), userId, sessionId, truncated);
+    }
+
+    /**
+     * Resolves every sender and latest actor of the page with one cached lookup, then renders the text.
+     */
+    private List<NotificationResponse> toDtos(List<NotificationView> rows, LocalDateTime readUntil, Locale locale) {
+        Set<Long> userIds = new HashSet<>();
+        for (NotificationView row : rows) {
+            userIds.add(row.getSenderId());
+            userIds.addAll(parseActorIds(row.getLatestActorIds()));
+        }
+        Map<Long, UserDto> users = userSummaryCache.getAll(userIds);
+
+        return rows.stream()
+                .map(row -> toDto(row, readUntil, locale, users))
+                .toList();
+    }
+
+    private NotificationResponse toDto(NotificationView notification, LocalDateTime readUntil, Locale locale, Map<Long, UserDto> users) {
+        boolean read = Boolean.TRUE.equals(notification.getIsRead()) || !notification.getCreatedAt().isAfter(readUntil);
+        int actorCount = notification.getActorCount() != null ? notification.getActorCount() : 1;
+
+        List<String> latestActors = parseActorIds(notification.getLatestActorIds()).stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(UserDto::getUsername)
+                .toList();
+        UserDto sender = users.get(notification.getSenderId());
+        String senderUsername = sender != null ? sender.getUsername() : null;
+        String displayedActor = latestActors.isEmpty() ? senderUsername : latestActors.get(0);
+
         return NotificationResponse.builder()
                 .id(notification.getId())
-                .senderUsername(notification.getSender().getUsername())
-                .message(notification.getMessage())
+                .senderId(notification.getSenderId())
+                .senderUsername(senderUsername)
+                .message(textRenderer.render(notification.getType(), displayedActor, actorCount, locale))
                 .type(notification.getType())
                 .createdAt(notification.getCreatedAt())
-                .isRead(notification.isRead())
+                .isRead(read)
+                .targetId(notification.getTargetId())
+                .actorCount(actorCount)
+                .latestActors(latestActors)
                 .build();
     }
 
+    private LocalDateTime readWatermarkOf(User user) {
+        return user.getNotificationsReadUntil() != null ? user.getNotificationsReadUntil() : NEVER_READ;
+    }
+
+    private List<Long> parseActorIds(String latestActorIds) {
+        if (latestActorIds == null || latestActorIds.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(latestActorIds.split(","))
+                .map(String::trim)
+                .map(Long::valueOf)
+                .toList();
+    }
+
     private User getLoggedInUser() {
-        String username = authenticationFacade.getAuthentication().getName();
-        log.debug("Authenticated username: {}", username);
-
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> {
-                    log.error("User not found with username: {}", username);
-                    return new UserNotFoundException("User not found with username : " + username);
-                });
+        return authenticationFacade.getCurrentUser();
     }
 }
@@ -0,0 +1,81 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.entity.enums.NotificationType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.MessageFormat;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders notification text at read time from the notification_templates table. Templates are
+ * compiled once per locale and refreshed periodically.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationTextRenderer {
+
+    public static final Locale DEFAULT_LOCALE = Locale.ENGLISH;
+    private static final String FALLBACK_TEMPLATE = "{0} sent a notification.";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Map<String, Map<NotificationType, MessageFormat>> templatesByLocale;
+
+    /**
+     * @param actorCount total actors coalesced into the notification, including the latest one
+     */
+    public String render(NotificationType type, String latestActor, int actorCount, Locale locale) {
+        MessageFormat format = templateFor(type, locale);
+        Object[] args = {latestActor, Math.max(0, actorCount - 1)};
+        // MessageFormat is not thread-safe
+        synchronized (format) {
+            return format.format(args);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.templates.refresh-ms:600000}", initialDelayString = "${notification.templates.refresh-ms:600000}")
+    public void reload() {
+        Map<String, Map<NotificationType, MessageFormat>> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT type, locale, template FROM notification_templates", rs -> {
+            String locale = rs.getString("locale");
+            NotificationType type;
+            try {
+                type = NotificationType.valueOf(rs.getString("type"));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring notification template for unknown type '{}'", rs.getString("type"));
+                return;
+            }
+            loaded.computeIfAbsent(locale, key -> new EnumMap<>(NotificationType.class))
+                    .put(type, new MessageFormat(rs.getString("template"), Locale.forLanguageTag(locale)));
+        });
+        templatesByLocale = loaded;
+        log.info("Loaded notification templates for locales {}", loaded.keySet());
+    }
+
+    private MessageFormat templateFor(NotificationType type, Locale locale) {
+        if (templatesByLocale == null) {
+            synchronized (this) {
+                if (templatesByLocale == null) {
+                    reload();
+                }
+            }
+        }
+
+        Locale requested = locale != null ? locale : DEFAULT_LOCALE;
+        for (String candidate : new String[]{requested.toLanguageTag(), requested.getLanguage(), DEFAULT_LOCALE.getLanguage()}) {
+            Map<NotificationType, MessageFormat> templates = templatesByLocale.get(candidate);
+            if (templates != null && templates.containsKey(type)) {
+                return templates.get(type);
+            }
+        }
+        return new MessageFormat(FALLBACK_TEMPLATE, requested);
+    }
+}
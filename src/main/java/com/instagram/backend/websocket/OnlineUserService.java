@@ -1,36 +1,271 @@
 package com.instagram.backend.websocket;
 
+import com.instagram.backend.dtos.response.PresenceResponse;
+import com.instagram.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 
+import java.io.IOException;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Reference-counted presence: a user is online while at least one of their WebSocket sessions is open.
+ * Sessions are touched by every inbound frame, heartbeats included, and sessions silent for longer than
+ * the stale timeout are reaped even if their disconnect event never arrived: the socket is closed and the
+ * session forgotten. A frame from a session that was forgotten but is still alive tracks it again. When the
+ * last session of a user closes, the time is stored as the user's last-seen. Transitions of one user are
+ * serialized, so registry calls and presence events follow the session count in order.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class OnlineUserService {
 
-    // Thread-safe set to track online users
-    private final Set<Long> onlineUsers = ConcurrentHashMap.newKeySet();
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PresenceRegistry presenceRegistry;
 
-    public void userConnected(Long userId) {
-        onlineUsers.add(userId);
-        log.info("User [{}] marked as online. Total online: {}", userId, onlineUsers.size());
+    // Sessions with no inbound frame (heartbeats included) for this long are considered dead
+    @Value("${websocket.presence.stale-session-timeout-ms:60000}")
+    private long staleSessionTimeoutMillis;
+
+    private static final int LOCK_STRIPES = 64;
+    private static final CloseStatus STALE_SESSION = CloseStatus.GOING_AWAY.withReason("No frames within the stale session timeout");
+
+    private final Map<String, TrackedSession> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> sessionCounts = new ConcurrentHashMap<>();
+    // Open sockets by session id, so a reaped session can be closed for real
+    private final Map<String, WebSocketSession> sockets = new ConcurrentHashMap<>();
+    private final Object[] userLocks = new Object[LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            userLocks[i] = new Object();
+        }
     }
 
-    public void userDisconnected(Long userId) {
-        onlineUsers.remove(userId);
-        log.info("User [{}] marked as offline. Total online: {}", userId, onlineUsers.size());
+    public void userConnected(Long userId, String sessionId) {
+        int count;
+        synchronized (lockOf(userId)) {
+            if (sessions.putIfAbsent(sessionId, new TrackedSession(userId)) != null) {
+                return;
+            }
+            count = sessionCounts.merge(userId, 1, Integer::sum);
+            if (count == 1) {
+                presenceRegistry.userOnline(userId);
+                eventPublisher.publishEvent(new PresenceChangedEvent(userId, true, LocalDateTime.now()));
+            }
+        }
+        log.info("User [{}] opened session {} ({} open). Total online: {}", userId, sessionId, count, sessionCounts.size());
     }
 
+    public void sessionClosed(String sessionId) {
+        TrackedSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+
+        LocalDateTime lastSeenAt = null;
+        synchronized (lockOf(session.userId())) {
+            if (!sessions.remove(sessionId, session)) {
+                return;
+            }
+            Integer remaining = sessionCounts.computeIfPresent(session.userId(), (id, count) -> count > 1 ? count - 1 : null);
+            if (remaining == null) {
+                lastSeenAt = LocalDateTime.now();
+                presenceRegistry.userOffline(session.userId());
+                eventPublisher.publishEvent(new PresenceChangedEvent(session.userId(), false, lastSeenAt));
+            }
+        }
+
+        if (lastSeenAt != null) {
+            try {
+                userRepository.updateLastSeenAt(session.userId(), lastSeenAt);
+            } catch (Exception e) {
+                log.error("Failed to store last-seen of user [{}]: {}", session.userId(), e.getMessage());
+            }
+            log.info("User [{}] marked as offline. Total online: {}", session.userId(), sessionCounts.size());
+        }
+    }
+
+    /**
+     * Online on this node or, with a cluster backend, on any other node.
+     */
     public boolean isUserOnline(Long userId) {
-        boolean online = onlineUsers.contains(userId);
+        boolean online = sessionCounts.containsKey(userId) || presenceRegistry.isOnlineElsewhere(userId);
         log.debug("Checked online status for user [{}]: {}", userId, online);
         return online;
     }
 
-    // for debugging or admin visibility
+    /**
+     * The given users that are online anywhere: users on this node are answered from memory, the others with one
+     * batched lookup in the presence registry.
+     */
+    public Set<Long> onlineAmong(Collection<Long> userIds) {
+        Set<Long> online = new HashSet<>();
+        List<Long> notLocal = new ArrayList<>();
+        for (Long userId : userIds) {
+            (sessionCounts.containsKey(userId) ? online : notLocal).add(userId);
+        }
+        if (!notLocal.isEmpty()) {
+            online.addAll(presenceRegistry.onlineElsewhere(notLocal));
+        }
+        return online;
+    }
+
+    /**
+     * Presence of many users at once: online users are answered from memory, last-seen of the others with one query.
+     */
+    public List<PresenceResponse> getPresence(Collection<Long> userIds) {
+        Set<Long> requested = new LinkedHashSet<>(userIds);
+        Set<Long> onlineUsers = onlineAmong(requested);
+        List<Long> offline = requested.stream().filter(id -> !onlineUsers.contains(id)).toList();
+
+        Map<Long, LocalDateTime> lastSeen = new HashMap<>();
+        if (!offline.isEmpty()) {
+            userRepository.findLastSeenByIdIn(offline).forEach(row -> lastSeen.put((Long) row[0], (LocalDateTime) row[1]));
+        }
+
+        List<PresenceResponse> presence = new ArrayList<>(requested.size());
+        for (Long userId : requested) {
+            boolean online = onlineUsers.contains(userId);
+            presence.add(new PresenceResponse(userId, online, online ? null : lastSeen.get(userId)));
+        }
+        return presence;
+    }
+
+    // for debugging or admin visibility; users connected to this node only
     public Set<Long> getAllOnlineUsers() {
-        return Set.copyOf(onlineUsers);
+        return Set.copyOf(sessionCounts.keySet());
+    }
+
+    /**
+     * Marks the sending session as alive on every inbound frame.
+     */
+    public ChannelInterceptor activityInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+                if (sessionId == null) {
+                    return message;
+                }
+                TrackedSession session = sessions.get(sessionId);
+                if (session != null) {
+                    session.touch();
+                } else if (sockets.containsKey(sessionId)
+                        && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.CONNECT) {
+                    // Reaped while its socket stayed open (e.g. the close failed); it is evidently alive
+                    Long userId = userIdOf(SimpMessageHeaderAccessor.getUser(message.getHeaders()));
+                    if (userId != null) {
+                        log.info("Re-tracking live WebSocket session {} of user [{}]", sessionId, userId);
+                        userConnected(userId, sessionId);
+                    }
+                }
+                return message;
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.presence.reap-interval-ms:30000}")
+    public void reapStaleSessions() {
+        long cutoff = System.currentTimeMillis() - staleSessionTimeoutMillis;
+        sessions.forEach((sessionId, session) -> {
+            if (session.lastActivityAt() < cutoff) {
+                log.warn("Reaping stale WebSocket session {} of user [{}]", sessionId, session.userId());
+                sessionClosed(sessionId);
+                closeSocket(sessionId);
+            }
+        });
+    }
+
+    /**
+     * Tracks the open sockets, so {@link #reapStaleSessions} can close the ones it gives up on.
+     */
+    WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sockets.put(session.getId(), session);
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sockets.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private void closeSocket(String sessionId) {
+        WebSocketSession socket = sockets.get(sessionId);
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close(STALE_SESSION);
+        } catch (IOException e) {
+            log.warn("Failed to close stale WebSocket session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private Object lockOf(Long userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private Long userIdOf(Principal user) {
+        if (user == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(user.getName());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class TrackedSession {
+        private final Long userId;
+        private volatile long lastActivityAt = System.currentTimeMillis();
+
+        private TrackedSession(Long userId) {
+            this.userId = userId;
+        }
+
+        Long userId() {
+            return userId;
+        }
+
+        long lastActivityAt() {
+            return lastActivityAt;
+        }
+
+        void touch() {
+            lastActivityAt = System.currentTimeMillis();
+        }
     }
 }
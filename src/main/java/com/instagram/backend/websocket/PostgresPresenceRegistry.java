@@ -0,0 +1,206 @@
+package com.instagram.backend.websocket;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cluster backend on the UNLOGGED presence_heartbeats table. Each node upserts the IDs of its connected users
+ * in array-sized batches, renews them every heartbeat and deletes them on disconnect; rows of a crashed node
+ * expire after the TTL. Lookups of other nodes' users go through a short-lived local cache, so repeated checks
+ * on the hot path are a map read.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.presence.backend", havingValue = "postgres")
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresPresenceRegistry implements PresenceRegistry {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO presence_heartbeats (user_id, node_id, expires_at)
+            SELECT unnest(?::bigint[]), ?, now() + make_interval(secs => ?)
+            ON CONFLICT (user_id, node_id) DO UPDATE SET expires_at = EXCLUDED.expires_at
+            """;
+
+    private static final String DELETE_SQL =
+            "DELETE FROM presence_heartbeats WHERE node_id = ? AND user_id = ANY(?::bigint[])";
+
+    private static final String ONLINE_ELSEWHERE_SQL = """
+            SELECT DISTINCT user_id FROM presence_heartbeats
+            WHERE user_id = ANY(?::bigint[]) AND node_id <> ? AND expires_at > now()
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${websocket.presence.postgres.ttl-ms:30000}")
+    private long ttlMillis;
+
+    @Value("${websocket.presence.postgres.batch-size:1000}")
+    private int batchSize;
+
+    // How long a lookup of another node's user is served from memory
+    @Value("${websocket.presence.postgres.cache-ttl-ms:2000}")
+    private long cacheTtlMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<Long> localUsers = ConcurrentHashMap.newKeySet();
+
+    // Joins (true) and leaves (false) not yet written; the latest change of a user wins
+    private final Map<Long, Boolean> pendingChanges = new ConcurrentHashMap<>();
+    private final Map<Long, CachedPresence> remoteCache = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    @Override
+    public void userOnline(Long userId) {
+        localUsers.add(userId);
+        pendingChanges.put(userId, true);
+    }
+
+    @Override
+    public void userOffline(Long userId) {
+        localUsers.remove(userId);
+        pendingChanges.put(userId, false);
+    }
+
+    @Override
+    public boolean seesOtherNodes() {
+        return true;
+    }
+
+    @Override
+    public boolean isOnlineElsewhere(Long userId) {
+        CachedPresence cached = remoteCache.get(userId);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.online();
+        }
+        return !onlineElsewhere(List.of(userId)).isEmpty();
+    }
+
+    @Override
+    public Set<Long> onlineElsewhere(Collection<Long> userIds) {
+        long now = System.currentTimeMillis();
+        Set<Long> online = new HashSet<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long userId : userIds) {
+            CachedPresence cached = remoteCache.get(userId);
+            if (cached == null || cached.expiresAt() <= now) {
+                misses.add(userId);
+            } else if (cached.online()) {
+                online.add(userId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            try {
+                Set<Long> found = new HashSet<>(jdbcTemplate.queryForList(
+                        ONLINE_ELSEWHERE_SQL, Long.class, toArray(misses), nodeId));
+                long expiresAt = now + cacheTtlMillis;
+                for (Long userId : misses) {
+                    remoteCache.put(userId, new CachedPresence(found.contains(userId), expiresAt));
+                }
+                online.addAll(found);
+            } catch (Exception e) {
+                // Fall back to node-local presence rather than failing the caller
+                log.error("Failed to read cluster presence: {}", e.getMessage());
+            }
+        }
+        return online;
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.presence.postgres.flush-interval-ms:1000}")
+    public void flushChanges() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            List<Long> joined = new ArrayList<>();
+            List<Long> left = new ArrayList<>();
+            for (Long userId : pendingChanges.keySet()) {
+                Boolean online = pendingChanges.remove(userId);
+                if (online != null) {
+                    (online ? joined : left).add(userId);
+                }
+            }
+            try {
+                upsert(joined);
+                for (List<Long> batch : batches(left)) {
+                    jdbcTemplate.update(DELETE_SQL, nodeId, toArray(batch));
+                }
+            } catch (Exception e) {
+                log.error("Failed to write presence changes of node {}: {}", nodeId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Renews every local user, drops rows of nodes that stopped heartbeating and forgets stale cache entries.
+     */
+    @Scheduled(fixedDelayString = "${websocket.presence.postgres.heartbeat-ms:10000}")
+    public void heartbeat() {
+        synchronized (writeLock) {
+            try {
+                upsert(new ArrayList<>(localUsers));
+                int expired = jdbcTemplate.update("DELETE FROM presence_heartbeats WHERE expires_at < now()");
+                if (expired > 0) {
+                    log.info("Expired {} presence heartbeats of departed nodes", expired);
+                }
+            } catch (Exception e) {
+                log.error("Presence heartbeat of node {} failed: {}", nodeId, e.getMessage());
+            }
+        }
+        long now = System.currentTimeMillis();
+        remoteCache.values().removeIf(cached -> cached.expiresAt() <= now);
+    }
+
+    @PreDestroy
+    void stop() {
+        try {
+            jdbcTemplate.update("DELETE FROM presence_heartbeats WHERE node_id = ?", nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to clear presence heartbeats of node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private void upsert(List<Long> userIds) {
+        for (List<Long> batch : batches(userIds)) {
+            jdbcTemplate.update(UPSERT_SQL, toArray(batch), nodeId, ttlMillis / 1000.0);
+        }
+    }
+
+    private List<List<Long>> batches(List<Long> userIds) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            batches.add(userIds.subList(from, Math.min(from + batchSize, userIds.size())));
+        }
+        return batches;
+    }
+
+    // Sent as a Postgres array literal so a batch is one bind parameter, whatever its size
+    private String toArray(List<Long> userIds) {
+        StringBuilder literal = new StringBuilder(userIds.size() * 8).append('{');
+        for (int i = 0; i < userIds.size(); i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(userIds.get(i));
+        }
+        return literal.append('}').toString();
+    }
+
+    private record CachedPresence(boolean online, long expiresAt) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.dtos.response.PresenceResponse;
+import com.instagram.backend.service.PresenceAudienceCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes presence changes to the user's chat peers (and mutual followers when enabled) on /queue/presence.
+ * Changes are collected and flushed once per interval: only the latest state of a user is kept, and a state
+ * equal to the last one pushed is dropped, so a connection flapping within an interval causes no push at all.
+ */
+@Component
+@Slf4j
+public class PresenceBroadcaster {
+
+    public static final String PRESENCE_DESTINATION = "/queue/presence";
+
+    private final PresenceAudienceCache audienceCache;
+    private final ClusterMessagingTemplate clusterMessagingTemplate;
+    private final OnlineUserService onlineUserService;
+    private final Counter pushed;
+    private final Counter suppressed;
+
+    // Latest unflushed change per user
+    private final Map<Long, PresenceChangedEvent> pending = new ConcurrentHashMap<>();
+
+    // Users whose last pushed state is online; absence means offline was pushed or nothing ever was
+    private final Set<Long> publishedOnline = ConcurrentHashMap.newKeySet();
+
+    public PresenceBroadcaster(PresenceAudienceCache audienceCache,
+                               ClusterMessagingTemplate clusterMessagingTemplate,
+                               OnlineUserService onlineUserService,
+                               MeterRegistry meterRegistry) {
+        this.audienceCache = audienceCache;
+        this.clusterMessagingTemplate = clusterMessagingTemplate;
+        this.onlineUserService = onlineUserService;
+        this.pushed = Counter.builder("websocket.presence.changes").tag("result", "pushed").register(meterRegistry);
+        this.suppressed = Counter.builder("websocket.presence.changes").tag("result", "suppressed").register(meterRegistry);
+    }
+
+    @EventListener
+    public void onPresenceChanged(PresenceChangedEvent event) {
+        pending.put(event.userId(), event);
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.presence.broadcast-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<PresenceChangedEvent> changes = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            PresenceChangedEvent change = pending.remove(userId);
+            if (change != null) {
+                changes.add(change);
+            }
+        }
+
+        for (PresenceChangedEvent change : changes) {
+            // Leaving this node is not going offline while a session remains on another node
+            // The node holding the last session pushes the final offline, so a later reconnect here must push online again
+            if (!change.online() && onlineUserService.isUserOnline(change.userId())) {
+                publishedOnline.remove(change.userId());
+                suppressed.increment();
+                continue;
+            }
+            boolean changed = change.online()
+                    ? publishedOnline.add(change.userId())
+                    : publishedOnline.remove(change.userId());
+            if (!changed) {
+                suppressed.increment();
+                continue;
+            }
+            try {
+                broadcast(change);
+                pushed.increment();
+            } catch (Exception e) {
+                log.error("Failed to broadcast presence of user [{}]: {}", change.userId(), e.getMessage());
+            }
+        }
+    }
+
+    private void broadcast(PresenceChangedEvent change) {
+        PresenceResponse payload = new PresenceResponse(
+                change.userId(), change.online(), change.online() ? null : change.changedAt());
+
+        // One batched presence lookup for the whole audience rather than one per peer
+        Set<Long> recipients = onlineUserService.onlineAmong(audienceCache.getAudience(change.userId()));
+        clusterMessagingTemplate.convertAndSendToUsers(recipients, PRESENCE_DESTINATION, payload);
+        log.debug("Pushed presence of user [{}] (online={}) to {} users", change.userId(), change.online(), recipients.size());
+    }
+}
@@ -0,0 +1,10 @@
+package com.instagram.backend.websocket;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link OnlineUserService} when a user's first session opens or last session closes,
+ * and debounced by {@link PresenceBroadcaster} before anything is pushed.
+ */
+public record PresenceChangedEvent(Long userId, boolean online, LocalDateTime changedAt) {
+}
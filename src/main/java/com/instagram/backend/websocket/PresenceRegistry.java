@@ -0,0 +1,39 @@
+package com.instagram.backend.websocket;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Backend that shares which users are connected to this node with the other nodes, so presence checks see
+ * sessions anywhere in the cluster. Selected with websocket.presence.backend (local or postgres).
+ */
+public interface PresenceRegistry {
+
+    /**
+     * Called when the first session of the user opens on this node.
+     */
+    void userOnline(Long userId);
+
+    /**
+     * Called when the last session of the user on this node closes.
+     */
+    void userOffline(Long userId);
+
+    /**
+     * Whether the user has a session on another node.
+     */
+    boolean isOnlineElsewhere(Long userId);
+
+    /**
+     * The given users that have a session on another node.
+     */
+    Set<Long> onlineElsewhere(Collection<Long> userIds);
+
+    /**
+     * Whether this backend knows about sessions on other nodes. When false, "not online elsewhere" only means
+     * "unknown", so callers must not skip other nodes based on it.
+     */
+    default boolean seesOtherNodes() {
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+package com.instagram.backend.websocket;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Locale of the WebSocket clients of each user, taken from the Accept-Language of their latest handshake, so
+ * pushed notification text is rendered in the recipient's language rather than the sender's or the server's.
+ */
+@Component
+public class RecipientLocales {
+
+    // Handshake attribute holding the client's preferred locale
+    public static final String LOCALE_ATTRIBUTE = "locale";
+
+    @Value("${websocket.recipient-locales.max-size:100000}")
+    private int maxSize;
+
+    private final Map<Long, Locale> locales = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Locale> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    public void remember(Long userId, Locale locale) {
+        if (userId == null || locale == null) {
+            return;
+        }
+        synchronized (locales) {
+            locales.put(userId, locale);
+        }
+    }
+
+    public Locale localeOf(Long userId) {
+        synchronized (locales) {
+            return locales.getOrDefault(userId, NotificationTextRenderer.DEFAULT_LOCALE);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.instagram.backend.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.Collections;
+
+/**
+ * Exposes STOMP pool saturation and session health as metrics and logs sessions that were closed as slow
+ * consumers. Spring closes a session with SESSION_NOT_RELIABLE once its send buffer or send time limit
+ * (see {@link WebSocketConfig#configureWebSocketTransport}) is exceeded, instead of letting the buffer grow.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SlowConsumerMonitor {
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<WebSocketMessageBrokerStats> brokerStats;
+    private final ApplicationContext applicationContext;
+
+    private Counter slowConsumerDisconnects;
+
+    @PostConstruct
+    void init() {
+        slowConsumerDisconnects = Counter.builder("websocket.sessions.slow.consumer.disconnects")
+                .description("Sessions closed because outbound frames backed up")
+                .register(meterRegistry);
+    }
+
+    WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    slowConsumerDisconnects.increment();
+                    log.warn("Closed slow WebSocket consumer session {} of user {}: {}",
+                            session.getId(), session.getPrincipal() != null ? session.getPrincipal().getName() : null,
+                            closeStatus.getReason());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerMetrics() {
+        // Pool size, active threads, queued tasks and remaining queue capacity of the STOMP channels
+        monitorExecutor("clientInboundChannelExecutor", "websocket.inbound");
+        monitorExecutor("clientOutboundChannelExecutor", "websocket.outbound");
+
+        brokerStats.ifAvailable(stats -> {
+            SubProtocolWebSocketHandler.Stats sessions = stats.getWebSocketSessionStats();
+            if (sessions == null) {
+                return;
+            }
+            Gauge.builder("websocket.sessions.open", sessions, SubProtocolWebSocketHandler.Stats::getTotalSessions)
+                    .description("Open WebSocket and SockJS sessions")
+                    .register(meterRegistry);
+            FunctionCounter.builder("websocket.sessions.limit.exceeded", sessions, s -> s.getLimitExceededSessions())
+                    .description("Sessions closed for exceeding the send buffer or send time limit")
+                    .register(meterRegistry);
+            FunctionCounter.builder("websocket.sessions.no.messages", sessions, s -> s.getNoMessagesReceivedSessions())
+                    .description("Sessions closed for sending no frame within the time to first message")
+                    .register(meterRegistry);
+        });
+    }
+
+    private void monitorExecutor(String beanName, String metricPrefix) {
+        if (applicationContext.containsBean(beanName)) {
+            ThreadPoolTaskExecutor executor = applicationContext.getBean(beanName, ThreadPoolTaskExecutor.class);
+            ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), metricPrefix, Collections.emptyList());
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.instagram.backend.websocket;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-session payload encoding for STOMP. A client connected to the raw WebSocket endpoint opts into CBOR
+ * (timestamps as epoch millis) with the CONNECT header {@code payload-format: cbor}; everyone else keeps JSON.
+ * CBOR frames carry {@code content-type: application/octet-stream;format=cbor}, which makes Spring send them as
+ * binary WebSocket messages; SockJS only carries text, so the request is ignored on SockJS endpoints.
+ * Outgoing payloads stay objects through the broker and are encoded once per format in the outbound channel,
+ * so one broadcast can reach JSON and CBOR sessions alike. Clients may also SEND with
+ * {@code content-type: application/cbor}.
+ */
+@Component
+@Slf4j
+public class StompPayloadCodec {
+
+    public static final String FORMAT_HEADER = "payload-format";
+    public static final MimeType APPLICATION_CBOR = MimeType.valueOf("application/cbor");
+    // Outgoing CBOR frames must be octet-stream, the only content-type Spring sends as a binary WebSocket message
+    public static final MimeType CBOR_FRAME_TYPE = new MimeType("application", "octet-stream", Map.of("format", "cbor"));
+    // Handshake attribute marking sessions on a transport that can carry binary frames
+    public static final String BINARY_TRANSPORT_ATTRIBUTE = "binaryTransport";
+
+    public enum PayloadFormat {
+        JSON(MimeTypeUtils.APPLICATION_JSON),
+        CBOR(CBOR_FRAME_TYPE);
+
+        private final MimeType mimeType;
+
+        PayloadFormat(MimeType mimeType) {
+            this.mimeType = mimeType;
+        }
+    }
+
+    private final Map<PayloadFormat, ObjectMapper> mappers = new EnumMap<>(PayloadFormat.class);
+    private final Map<PayloadFormat, DistributionSummary> payloadBytes = new EnumMap<>(PayloadFormat.class);
+    private final Map<PayloadFormat, Timer> encodeTimers = new EnumMap<>(PayloadFormat.class);
+    private final Map<String, PayloadFormat> sessionFormats = new ConcurrentHashMap<>();
+
+    public StompPayloadCodec(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        mappers.put(PayloadFormat.JSON, objectMapper);
+        mappers.put(PayloadFormat.CBOR, new ObjectMapper(new CBORFactory())
+                .registerModule(new JavaTimeModule())
+                .registerModule(new SimpleModule().addSerializer(LocalDateTime.class, new EpochMillisSerializer()))
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+        // Side by side these show serialization cost and bytes on the wire of each format
+        for (PayloadFormat format : PayloadFormat.values()) {
+            payloadBytes.put(format, DistributionSummary.builder("websocket.outbound.payload.bytes")
+                    .description("Encoded size of outgoing STOMP payloads")
+                    .baseUnit("bytes")
+                    .tag("format", format.name())
+                    .register(meterRegistry));
+            encodeTimers.put(format, Timer.builder("websocket.outbound.payload.encode")
+                    .description("Time to encode one outgoing STOMP payload")
+                    .tag("format", format.name())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Broker converter that leaves the payload unencoded; {@link #outboundInterceptor()} encodes it per session.
+     */
+    public MessageConverter deferredConverter() {
+        // No supported mime types, so the converter adds no content-type header of its own
+        return new AbstractMessageConverter(new ArrayList<>()) {
+            @Override
+            protected boolean supports(Class<?> clazz) {
+                return !String.class.equals(clazz) && !byte[].class.equals(clazz);
+            }
+
+            @Override
+            protected boolean canConvertFrom(Message<?> message, Class<?> targetClass) {
+                return false;
+            }
+
+            @Override
+            protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+                return new DeferredPayload(payload);
+            }
+        };
+    }
+
+    /**
+     * Decodes SEND frames whose content-type is application/cbor.
+     */
+    public MessageConverter cborInboundConverter() {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter(APPLICATION_CBOR);
+        converter.setObjectMapper(mappers.get(PayloadFormat.CBOR));
+        return converter;
+    }
+
+    /**
+     * Records the format a session asked for on CONNECT.
+     */
+    public ChannelInterceptor inboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+                if (StompCommand.CONNECT.equals(accessor.getCommand()) || StompCommand.STOMP.equals(accessor.getCommand())) {
+                    String requested = accessor.getFirstNativeHeader(FORMAT_HEADER);
+                    if ("cbor".equalsIgnoreCase(requested)) {
+                        Map<String, Object> attributes = accessor.getSessionAttributes();
+                        if (attributes != null && Boolean.TRUE.equals(attributes.get(BINARY_TRANSPORT_ATTRIBUTE))) {
+                            sessionFormats.put(accessor.getSessionId(), PayloadFormat.CBOR);
+                        } else {
+                            log.debug("Session {} asked for CBOR over a text-only transport, keeping JSON", accessor.getSessionId());
+                        }
+                    }
+                }
+                return message;
+            }
+        };
+    }
+
+    /**
+     * Marks sessions of the raw WebSocket endpoint, the only ones that may negotiate CBOR.
+     */
+    public HandshakeInterceptor binaryTransportInterceptor() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                           WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                attributes.put(BINARY_TRANSPORT_ATTRIBUTE, true);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
+
+    public ChannelInterceptor outboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (!(message.getPayload() instanceof DeferredPayload deferred)) {
+                    return message;
+                }
+                SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+                String sessionId = accessor.getSessionId();
+                PayloadFormat format = sessionId != null ? sessionFormats.getOrDefault(sessionId, PayloadFormat.JSON) : PayloadFormat.JSON;
+
+                accessor.setContentType(format.mimeType);
+                return MessageBuilder.createMessage(deferred.encoded(format), accessor.getMessageHeaders());
+            }
+        };
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        sessionFormats.remove(event.getSessionId());
+    }
+
+    /**
+     * Payload on its way through the broker; each format is encoded at most once however many sessions receive it.
+     */
+    private final class DeferredPayload {
+        private final Object value;
+        private final Map<PayloadFormat, byte[]> encoded = new EnumMap<>(PayloadFormat.class);
+
+        private DeferredPayload(Object value) {
+            this.value = value;
+        }
+
+        synchronized byte[] encoded(PayloadFormat format) {
+            byte[] bytes = encoded.get(format);
+            if (bytes == null) {
+                long started = System.nanoTime();
+                try {
+                    bytes = mappers.get(format).writeValueAsBytes(value);
+                } catch (IOException e) {
+                    log.error("Failed to encode {} STOMP payload: {}", format, e.getMessage());
+                    bytes = new byte[0];
+                }
+                encodeTimers.get(format).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                payloadBytes.get(format).record(bytes.length);
+                encoded.put(format, bytes);
+            }
+            return bytes;
+        }
+    }
+
+    private static final class EpochMillisSerializer extends StdSerializer<LocalDateTime> {
+        private EpochMillisSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+}
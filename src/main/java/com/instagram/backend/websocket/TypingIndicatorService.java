@@ -0,0 +1,120 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.dtos.response.TypingIndicatorDTO;
+import com.instagram.backend.service.ChatRoomMembershipCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ephemeral typing indicators. Signals live only in memory: each sender is rate-limited, and every room's
+ * state is pushed at most once per flush interval, only when it changed. Typing expires on its own when a
+ * client stops refreshing it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TypingIndicatorService {
+
+    private final ChatRoomMembershipCache chatRoomMembershipCache;
+    private final ClusterMessagingTemplate messagingTemplate;
+
+    // Minimum gap between two accepted "still typing" signals of one sender in one room
+    @Value("${chat.typing.min-signal-interval-ms:1000}")
+    private long minSignalIntervalMillis;
+
+    @Value("${chat.typing.expiry-ms:5000}")
+    private long expiryMillis;
+
+    private final Map<Long, RoomTyping> rooms = new ConcurrentHashMap<>();
+
+    /**
+     * Records a signal. Returns false when it was rate-limited or the sender is not in the room.
+     */
+    public boolean signal(Long chatRoomId, Long userId, boolean typing) {
+        boolean member = chatRoomMembershipCache.get(chatRoomId)
+                .map(members -> members.contains(userId))
+                .orElse(false);
+        if (!member) {
+            log.debug("Ignoring typing signal of user {} for chat room {} they are not part of", userId, chatRoomId);
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean[] accepted = new boolean[1];
+        // Applied inside compute so a concurrent flush cannot drop the room between lookup and update
+        rooms.compute(chatRoomId, (id, room) -> {
+            RoomTyping state = room != null ? room : new RoomTyping();
+            accepted[0] = state.apply(userId, typing, now, minSignalIntervalMillis, expiryMillis);
+            return state;
+        });
+        return accepted[0];
+    }
+
+    /**
+     * Expires stale signals and pushes one update for every room whose set of typing users changed.
+     */
+    @Scheduled(fixedDelayString = "${chat.typing.flush-interval-ms:500}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        rooms.forEach((chatRoomId, room) -> {
+            Set<Long> typingUsers = room.drainIfChanged(now);
+            if (typingUsers != null) {
+                messagingTemplate.convertAndSend("/queue/chat/" + chatRoomId + "/typing",
+                        new TypingIndicatorDTO(chatRoomId, typingUsers));
+            }
+            rooms.computeIfPresent(chatRoomId, (id, current) -> current.isIdle() ? null : current);
+        });
+    }
+
+    private static class RoomTyping {
+        // userId -> time the typing signal expires
+        private final Map<Long, Long> expiresAt = new HashMap<>();
+        // userId -> time of the last accepted "typing" signal, for rate limiting
+        private final Map<Long, Long> lastAccepted = new HashMap<>();
+        private boolean changed;
+
+        synchronized boolean apply(Long userId, boolean typing, long now, long minIntervalMillis, long expiryMillis) {
+            if (!typing) {
+                lastAccepted.remove(userId);
+                if (expiresAt.remove(userId) != null) {
+                    changed = true;
+                }
+                return true;
+            }
+
+            Long last = lastAccepted.get(userId);
+            if (last != null && now - last < minIntervalMillis) {
+                return false;
+            }
+            lastAccepted.put(userId, now);
+            if (expiresAt.put(userId, now + expiryMillis) == null) {
+                changed = true;
+            }
+            return true;
+        }
+
+        synchronized Set<Long> drainIfChanged(long now) {
+            if (expiresAt.values().removeIf(expiry -> expiry <= now)) {
+                changed = true;
+            }
+            lastAccepted.values().removeIf(accepted -> now - accepted > 60_000);
+            if (!changed) {
+                return null;
+            }
+            changed = false;
+            return Set.copyOf(expiresAt.keySet());
+        }
+
+        synchronized boolean isIdle() {
+            return expiresAt.isEmpty() && lastAccepted.isEmpty() && !changed;
+        }
+    }
+}
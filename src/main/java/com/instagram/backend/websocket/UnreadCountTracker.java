@@ -0,0 +1,132 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.repository.NotificationRepository;
+import com.instagram.backend.repository.UserRepository;
+import com.instagram.backend.repository.projection.UnreadSeed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory unread notification counters for the most recently active users, seeded lazily from the database and
+ * then maintained incrementally. Changes are pushed to online users on /user/queue/notifications/unread-count.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UnreadCountTracker {
+
+    public static final String UNREAD_COUNT_DESTINATION = "/queue/notifications/unread-count";
+    private static final LocalDateTime NEVER_READ = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final ClusterMessagingTemplate messagingTemplate;
+    private final NotificationPartitionManager partitionManager;
+
+    @Value("${notification.unread-counter.max-users:100000}")
+    private int maxTrackedUsers;
+
+    // Access-ordered, so the least recently used counter is evicted once the cap is reached
+    private final Map<Long, UnreadCounter> counters = Collections.synchronizedMap(
+            new LinkedHashMap<>(1024, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, UnreadCounter> eldest) {
+                    return size() > maxTrackedUsers;
+                }
+            });
+
+    public long getUnreadCount(Long userId) {
+        UnreadCounter counter = counters.computeIfAbsent(userId, id -> new UnreadCounter());
+        // Seeding holds the counter's lock, so concurrent updates wait and apply on top of the seeded value
+        synchronized (counter) {
+            if (!counter.seeded) {
+                counter.readUntil = userRepository.findNotificationsReadUntilById(userId).orElse(NEVER_READ);
+                UnreadSeed seed = notificationRepository.seedUnreadCount(userId, partitionManager.inboxHorizon());
+                counter.count = seed.getUnread();
+                counter.highWaterId = seed.getHighWaterId();
+                counter.seeded = true;
+            }
+            return counter.count;
+        }
+    }
+
+    /**
+     * Called after new notifications were inserted for a user. Notifications created at or before the read watermark
+     * are already read, even if they were inserted after the user marked all as read; those at or below the seed's
+     * high-water id were committed before the seed and are already in its count.
+     */
+    public void added(Long userId, Collection<InsertedNotification> inserted) {
+        UnreadCounter counter = counters.get(userId);
+        if (counter != null) {
+            synchronized (counter) {
+                if (counter.seeded) {
+                    counter.count += inserted.stream()
+                            .filter(notification -> notification.id() > counter.highWaterId)
+                            .filter(notification -> notification.createdAt().isAfter(counter.readUntil))
+                            .count();
+                }
+            }
+        }
+        pushIfOnline(userId);
+    }
+
+    public void markedRead(Long userId) {
+        UnreadCounter counter = counters.get(userId);
+        if (counter != null) {
+            synchronized (counter) {
+                counter.count = Math.max(0, counter.count - 1);
+            }
+        }
+        pushIfOnline(userId);
+    }
+
+    public void markedAllRead(Long userId, LocalDateTime readUntil) {
+        UnreadCounter counter = counters.get(userId);
+        if (counter != null) {
+            synchronized (counter) {
+                if (counter.seeded) {
+                    counter.count = 0;
+                    counter.readUntil = readUntil;
+                }
+            }
+        }
+        pushIfOnline(userId);
+    }
+
+    /**
+     * Drops the cached counter so it is recounted on next access, used when an existing row changed read state.
+     */
+    public void invalidate(Long userId) {
+        counters.remove(userId);
+        pushIfOnline(userId);
+    }
+
+    private void pushIfOnline(Long userId) {
+        if (!messagingTemplate.isReachable(userId)) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(userId.toString(), UNREAD_COUNT_DESTINATION, getUnreadCount(userId));
+        } catch (Exception ex) {
+            log.error("Error pushing unread count to user [{}]: {}", userId, ex.getMessage());
+        }
+    }
+
+    public record InsertedNotification(long id, LocalDateTime createdAt) {
+    }
+
+    private static final class UnreadCounter {
+        private boolean seeded;
+        private long count;
+        private long highWaterId;
+        private LocalDateTime readUntil = NEVER_READ;
+    }
+}
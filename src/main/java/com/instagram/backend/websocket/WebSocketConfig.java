@@ -2,11 +2,18 @@ package com.instagram.backend.websocket;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Slf4j
 @Configuration
@@ -15,6 +22,44 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final AuthHandshakeInterceptor authHandshakeInterceptor;
+    private final SlowConsumerMonitor slowConsumerMonitor;
+    private final StompPayloadCodec stompPayloadCodec;
+    private final OnlineUserService onlineUserService;
+
+    @Value("${websocket.heartbeat-ms:10000}")
+    private long heartbeatMillis;
+
+    @Value("${websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    // A session whose pending outbound frames exceed this many bytes is treated as a slow consumer and closed
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    // ... as is a session where a single send blocks longer than this
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.transport.time-to-first-message-ms:30000}")
+    private int timeToFirstMessageMillis;
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -30,7 +75,14 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setHandshakeHandler(new WebSocketUserHandshakeHandler())
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        // Plain WebSocket without SockJS fallback; the only endpoint that can carry binary (CBOR) frames
+        registry.addEndpoint("/ws-binary")
+                .addInterceptors(authHandshakeInterceptor, stompPayloadCodec.binaryTransportInterceptor())
+                .setHandshakeHandler(new WebSocketUserHandshakeHandler())
+                .setAllowedOriginPatterns("*");
 
+        // Frames of one session are handled in the order they arrived even on a multi-threaded inbound pool
+        registry.setPreserveReceiveOrder(true);
 
         log.info("WebSocket endpoint registered with SockJS and custom handshake handler.");
     }
@@ -39,10 +91,58 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         log.info("Configuring message broker with /queue and /topic as simple brokers");
 
-        registry.enableSimpleBroker("/queue", "/topic"); // topic used for group/public broadcast, queue for private
+        ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("ws-heartbeat-");
+        heartbeatScheduler.initialize();
+
+        registry.enableSimpleBroker("/queue", "/topic") // topic used for group/public broadcast, queue for private
+                // Clients that miss heartbeats are disconnected by the broker, which ends their presence
+                .setHeartbeatValue(new long[]{heartbeatMillis, heartbeatMillis})
+                .setTaskScheduler(heartbeatScheduler);
         registry.setApplicationDestinationPrefixes("/app"); // All @MessageMapping should begin with /app
         registry.setUserDestinationPrefix("/user"); // for private 1-1 communication
+        registry.setPreservePublishOrder(true); // messages to one session are sent in publish order
 
         log.info("Message broker configured successfully.");
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+        registration.interceptors(stompPayloadCodec.inboundInterceptor(), onlineUserService.activityInterceptor());
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(stompPayloadCodec.outboundInterceptor());
+    }
+
+    /**
+     * Outgoing payloads are encoded per session (JSON or CBOR) by {@link StompPayloadCodec}; the defaults follow
+     * for String, byte[] and JSON payloads and for inbound conversion.
+     */
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(stompPayloadCodec.deferredConverter());
+        messageConverters.add(stompPayloadCodec.cborInboundConverter());
+        return true;
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMillis)
+                .setMessageSizeLimit(messageSizeLimit)
+                .setTimeToFirstMessage(timeToFirstMessageMillis)
+                .addDecoratorFactory(slowConsumerMonitor::decorate)
+                .addDecoratorFactory(onlineUserService::decorate);
+    }
 }
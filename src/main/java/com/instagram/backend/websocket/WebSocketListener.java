@@ -9,13 +9,19 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
+import java.util.Locale;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketListener {
 
+    // STOMP CONNECT header carrying the id of the newest notification the client has already seen
+    public static final String LAST_NOTIFICATION_ID_HEADER = "last-notification-id";
+
     private final OnlineUserService onlineUserService;
     private final JwtService tokenProvider;
+    private final RecipientLocales recipientLocales;
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectEvent event) {
@@ -37,7 +43,8 @@ public class WebSocketListener {
         try {
             Long userId = tokenProvider.extractUserId(token);
             if (userId != null) {
-                onlineUserService.userConnected(userId);
+                onlineUserService.userConnected(userId, accessor.getSessionId());
+                recipientLocales.remember(userId, (Locale) accessor.getSessionAttributes().get(RecipientLocales.LOCALE_ATTRIBUTE));
                 log.info("✅ User [{}] connected via WebSocket.", userId);
             } else {
                 log.warn("❌ Failed to extract userId from token during connect.");
@@ -45,6 +52,12 @@ public class WebSocketListener {
         } catch (Exception e) {
             log.error("Exception while extracting userId from token: {}", e.getMessage(), e);
         }
+
+        // Remember where the client left off; the replay is sent when it asks for it on /app/notifications.replay
+        String lastNotificationId = accessor.getFirstNativeHeader(LAST_NOTIFICATION_ID_HEADER);
+        if (lastNotificationId != null && !lastNotificationId.isBlank()) {
+            accessor.getSessionAttributes().put(LAST_NOTIFICATION_ID_HEADER, lastNotificationId);
+        }
     }
 
     @EventListener
@@ -52,14 +65,10 @@ public class WebSocketListener {
         StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
         log.info("WebSocket DISCONNECT - Session ID: {}", accessor.getSessionId());
 
+        // Presence is tracked per session, so this only marks the user offline when it was their last one
+        onlineUserService.sessionClosed(event.getSessionId());
         if (accessor.getUser() != null) {
-            try {
-                Long userId = Long.parseLong(accessor.getUser().getName());
-                onlineUserService.userDisconnected(userId);
-                log.info("🔌 User [{}] disconnected from WebSocket.", userId);
-            } catch (NumberFormatException e) {
-                log.error("Invalid user ID format in WebSocket disconnect event: {}", accessor.getUser().getName(), e);
-            }
+            log.info("🔌 User [{}] disconnected session {} from WebSocket.", accessor.getUser().getName(), event.getSessionId());
         } else {
             log.warn("WebSocket disconnect event without authenticated user.");
         }
@@ -0,0 +1,8 @@
+-- Relay batches too large for a NOTIFY payload; rows are short-lived, so skip the WAL
+CREATE UNLOGGED TABLE websocket_relay_spill (
+    id         BIGSERIAL PRIMARY KEY,
+    payload    TEXT      NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_websocket_relay_spill_created_at ON websocket_relay_spill (created_at);
@@ -0,0 +1,5 @@
+-- Full-text search over chat messages. 'simple' config: DMs are multilingual, so no stemming or stop words
+ALTER TABLE chat_messages
+    ADD COLUMN content_tsv tsvector GENERATED ALWAYS AS (to_tsvector('simple', content)) STORED;
+
+CREATE INDEX idx_chat_messages_content_tsv ON chat_messages USING GIN (content_tsv);
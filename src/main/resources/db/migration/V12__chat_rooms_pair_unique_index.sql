@@ -0,0 +1,17 @@
+-- ON CONFLICT (user_one_id, user_two_id) needs a unique index on exactly the ordered pair. The @UniqueConstraint
+-- on ChatRoom already provides one on schemas Hibernate created, so the index is only added where it is missing.
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1
+        FROM pg_constraint c
+        WHERE c.conrelid = 'chat_rooms'::regclass
+          AND c.contype IN ('u', 'p')
+          AND c.conkey = ARRAY[
+              (SELECT attnum FROM pg_attribute WHERE attrelid = 'chat_rooms'::regclass AND attname = 'user_one_id'),
+              (SELECT attnum FROM pg_attribute WHERE attrelid = 'chat_rooms'::regclass AND attname = 'user_two_id')
+          ]::smallint[]
+    ) THEN
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_chat_rooms_user_pair ON chat_rooms (user_one_id, user_two_id);
+    END IF;
+END $$;
@@ -0,0 +1,2 @@
+-- Set when a user's last WebSocket session closes
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_seen_at TIMESTAMP;
@@ -0,0 +1,10 @@
+-- Users connected to each node, renewed by heartbeat. UNLOGGED: the rows are rebuilt within one
+-- heartbeat after a crash, so WAL writes would be wasted.
+CREATE UNLOGGED TABLE IF NOT EXISTS presence_heartbeats (
+    user_id    BIGINT      NOT NULL,
+    node_id    VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP   NOT NULL,
+    PRIMARY KEY (user_id, node_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_presence_heartbeats_expires_at ON presence_heartbeats (expires_at);
@@ -0,0 +1,9 @@
+-- Pending OTP logins shared between nodes, used when otp.session-store.backend is jdbc
+CREATE TABLE IF NOT EXISTS otp_sessions (
+    temp_token      VARCHAR(64)  PRIMARY KEY,
+    username        VARCHAR(255) NOT NULL,
+    failed_attempts INT          NOT NULL DEFAULT 0,
+    expires_at      TIMESTAMP    NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_otp_sessions_expires_at ON otp_sessions (expires_at);
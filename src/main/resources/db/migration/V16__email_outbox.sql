@@ -0,0 +1,17 @@
+-- Emails are written here in the request transaction and delivered by EmailOutboxWorker
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id              BIGSERIAL    PRIMARY KEY,
+    recipient       VARCHAR(320) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    template        VARCHAR(100) NOT NULL,
+    variables       TEXT         NOT NULL,
+    status          VARCHAR(16)  NOT NULL DEFAULT 'PENDING',
+    attempts        INT          NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL DEFAULT now(),
+    last_error      TEXT,
+    created_at      TIMESTAMP    NOT NULL DEFAULT now(),
+    sent_at         TIMESTAMP
+);
+
+-- Workers only ever scan due pending rows
+CREATE INDEX IF NOT EXISTS idx_email_outbox_pending ON email_outbox (next_attempt_at) WHERE status = 'PENDING';
@@ -0,0 +1,2 @@
+-- Variables of finished emails (OTPs, reset links) are cleared once they are SENT or FAILED
+ALTER TABLE email_outbox ALTER COLUMN variables DROP NOT NULL;
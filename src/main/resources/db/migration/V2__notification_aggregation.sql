@@ -0,0 +1,4 @@
+-- Aggregated notifications: one row per (recipient, type, target) per window
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS target_id BIGINT;
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS actor_count INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS latest_actors VARCHAR(255);
@@ -0,0 +1,3 @@
+-- Keyset pagination of the notification inbox on (created_at, id), newest first
+CREATE INDEX IF NOT EXISTS idx_notifications_recipient_created_id
+    ON notifications (recipient_id, created_at DESC, id DESC);
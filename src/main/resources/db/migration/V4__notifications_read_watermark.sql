@@ -0,0 +1,2 @@
+-- Per-user read watermark: notifications created at or before it count as read
+ALTER TABLE users ADD COLUMN IF NOT EXISTS notifications_read_until TIMESTAMP;
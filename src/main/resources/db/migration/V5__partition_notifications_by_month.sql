@@ -0,0 +1,59 @@
+-- Monthly range partitioning of notifications on created_at.
+-- NotificationPartitionManager keeps future partitions created and expires old ones.
+ALTER TABLE notifications RENAME TO notifications_legacy;
+
+CREATE SEQUENCE notifications_partitioned_id_seq;
+SELECT setval('notifications_partitioned_id_seq', COALESCE((SELECT MAX(id) FROM notifications_legacy), 0) + 1, false);
+
+CREATE TABLE notifications (
+    id            BIGINT       NOT NULL DEFAULT nextval('notifications_partitioned_id_seq'),
+    message       VARCHAR(255),
+    is_read       BOOLEAN      NOT NULL DEFAULT FALSE,
+    created_at    TIMESTAMP(6) NOT NULL,
+    type          VARCHAR(255),
+    recipient_id  BIGINT REFERENCES users (id),
+    sender_id     BIGINT REFERENCES users (id),
+    target_id     BIGINT,
+    actor_count   INTEGER      NOT NULL DEFAULT 1,
+    latest_actors VARCHAR(255),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE notifications_partitioned_id_seq OWNED BY notifications.id;
+
+-- Safety net for rows outside the managed range, expected to stay empty
+CREATE TABLE notifications_default PARTITION OF notifications DEFAULT;
+
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM notifications_legacy), now()))::date;
+    last_month  DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF notifications FOR VALUES FROM (%L) TO (%L)',
+                       'notifications_p' || to_char(month_start, 'YYYY_MM'),
+                       month_start,
+                       (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO notifications (id, message, is_read, created_at, type, recipient_id, sender_id, target_id, actor_count, latest_actors)
+SELECT id, message, is_read, COALESCE(created_at, now()), type, recipient_id, sender_id, target_id, actor_count, latest_actors
+FROM notifications_legacy;
+
+DROP TABLE notifications_legacy;
+
+-- Replaces the single-column recipient, created_at and is_read indexes
+CREATE INDEX idx_notifications_recipient_created_id ON notifications (recipient_id, created_at DESC, id DESC);
+CREATE INDEX idx_notifications_sender_id ON notifications (sender_id);
+
+-- Per-user monthly rollup of read notifications compacted out of old partitions
+CREATE TABLE notification_summaries (
+    user_id            BIGINT       NOT NULL REFERENCES users (id),
+    month              DATE         NOT NULL,
+    type               VARCHAR(255) NOT NULL,
+    notification_count BIGINT       NOT NULL,
+    actor_count        BIGINT       NOT NULL,
+    PRIMARY KEY (user_id, month, type)
+);
@@ -0,0 +1,24 @@
+-- Notification rows keep only (type, sender_id, target_id) plus aggregation state; text is rendered on read
+ALTER TABLE notifications ADD COLUMN latest_actor_ids VARCHAR(255);
+UPDATE notifications SET latest_actor_ids = sender_id::text WHERE sender_id IS NOT NULL;
+ALTER TABLE notifications DROP COLUMN message;
+ALTER TABLE notifications DROP COLUMN latest_actors;
+
+-- java.text.MessageFormat patterns: {0} = latest actor username, {1} = number of other actors
+CREATE TABLE notification_templates (
+    type     VARCHAR(64) NOT NULL,
+    locale   VARCHAR(16) NOT NULL,
+    template TEXT        NOT NULL,
+    PRIMARY KEY (type, locale)
+);
+
+INSERT INTO notification_templates (type, locale, template) VALUES
+    ('FOLLOW',               'en', '{0}{1,choice,0#|1# and 1 other|1< and {1,number,integer} others} followed you.'),
+    ('UNFOLLOW',             'en', '{0} unfollowed you.'),
+    ('BLOCK',                'en', '{0} blocked you.'),
+    ('UNBLOCK',              'en', '{0} unblocked you.'),
+    ('FOLLOW_BACK',          'en', '{0} followed you back.'),
+    ('LIKE',                 'en', '{0}{1,choice,0#|1# and 1 other|1< and {1,number,integer} others} liked your post.'),
+    ('COMMENT',              'en', '{0}{1,choice,0#|1# and 1 other|1< and {1,number,integer} others} commented on your post.'),
+    ('MENTIONED_IN_POST',    'en', '{0} mentioned you in a post.'),
+    ('MENTIONED_IN_COMMENT', 'en', '{0}{1,choice,0#|1# and 1 other|1< and {1,number,integer} others} mentioned you in a comment.');
@@ -0,0 +1,5 @@
+-- Keyset pagination of chat history on (sent_at, id), newest first; supersedes the single-column room index
+CREATE INDEX IF NOT EXISTS idx_chat_messages_room_sent_id
+    ON chat_messages (chat_room_id, sent_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_chat_room_id;
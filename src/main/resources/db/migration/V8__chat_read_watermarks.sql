@@ -0,0 +1,41 @@
+-- Per-participant delivered/seen watermarks and an unread counter per chat room
+CREATE TABLE chat_read_states (
+    id                 BIGSERIAL PRIMARY KEY,
+    chat_room_id       BIGINT  NOT NULL REFERENCES chat_rooms (id) ON DELETE CASCADE,
+    user_id            BIGINT  NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    delivered_until_id BIGINT  NOT NULL DEFAULT 0,
+    seen_until_id      BIGINT  NOT NULL DEFAULT 0,
+    unread_count       INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT uk_chat_read_states_room_user UNIQUE (chat_room_id, user_id)
+);
+
+INSERT INTO chat_read_states (chat_room_id, user_id, delivered_until_id, seen_until_id, unread_count)
+SELECT r.id,
+       p.user_id,
+       COALESCE((SELECT MAX(m.id) FROM chat_messages m
+                 WHERE m.chat_room_id = r.id AND m.receiver_id = p.user_id AND m.status IN ('DELIVERED', 'SEEN')), 0),
+       COALESCE((SELECT MAX(m.id) FROM chat_messages m
+                 WHERE m.chat_room_id = r.id AND m.receiver_id = p.user_id AND m.status = 'SEEN'), 0),
+       (SELECT COUNT(*) FROM chat_messages m
+        WHERE m.chat_room_id = r.id AND m.receiver_id = p.user_id AND m.status <> 'SEEN')
+FROM chat_rooms r
+CROSS JOIN LATERAL (VALUES (r.user_one_id), (r.user_two_id)) AS p (user_id);
+
+-- Statement-level so a group-committed multi-row insert bumps each counter once
+CREATE FUNCTION chat_messages_count_unread() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO chat_read_states (chat_room_id, user_id, unread_count)
+    SELECT chat_room_id, receiver_id, COUNT(*)
+    FROM inserted
+    GROUP BY chat_room_id, receiver_id
+    ON CONFLICT (chat_room_id, user_id) DO UPDATE
+    SET unread_count = chat_read_states.unread_count + EXCLUDED.unread_count;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_chat_messages_count_unread
+    AFTER INSERT ON chat_messages
+    REFERENCING NEW TABLE AS inserted
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION chat_messages_count_unread();
@@ -0,0 +1,72 @@
+-- Denormalized conversation summary: last message on the room, per-participant ordering key on the read state
+ALTER TABLE chat_rooms ADD COLUMN last_message_id BIGINT;
+ALTER TABLE chat_rooms ADD COLUMN last_sender_id BIGINT;
+ALTER TABLE chat_rooms ADD COLUMN last_message_snippet VARCHAR(200);
+ALTER TABLE chat_rooms ADD COLUMN last_message_at TIMESTAMP;
+
+ALTER TABLE chat_read_states ADD COLUMN last_message_at TIMESTAMP;
+
+UPDATE chat_rooms r
+SET last_message_id = m.id,
+    last_sender_id = m.sender_id,
+    last_message_snippet = LEFT(m.content, 200),
+    last_message_at = m.sent_at
+FROM (
+    SELECT DISTINCT ON (chat_room_id) chat_room_id, id, sender_id, content, sent_at
+    FROM chat_messages
+    ORDER BY chat_room_id, id DESC
+) m
+WHERE r.id = m.chat_room_id;
+
+INSERT INTO chat_read_states (chat_room_id, user_id, last_message_at)
+SELECT r.id, p.user_id, r.last_message_at
+FROM chat_rooms r
+CROSS JOIN LATERAL (VALUES (r.user_one_id), (r.user_two_id)) AS p (user_id)
+WHERE r.last_message_at IS NOT NULL
+ON CONFLICT (chat_room_id, user_id) DO UPDATE SET last_message_at = EXCLUDED.last_message_at;
+
+-- Inbox: one range scan per user, newest conversation first
+CREATE INDEX idx_chat_read_states_inbox ON chat_read_states (user_id, last_message_at DESC, chat_room_id DESC);
+
+-- Extends the V8 trigger so every insert also refreshes the conversation summary in the same transaction
+DROP TRIGGER trg_chat_messages_count_unread ON chat_messages;
+DROP FUNCTION chat_messages_count_unread();
+
+CREATE FUNCTION chat_messages_update_conversations() RETURNS trigger AS $$
+BEGIN
+    UPDATE chat_rooms r
+    SET last_message_id = l.id,
+        last_sender_id = l.sender_id,
+        last_message_snippet = LEFT(l.content, 200),
+        last_message_at = l.sent_at
+    FROM (
+        SELECT DISTINCT ON (chat_room_id) chat_room_id, id, sender_id, content, sent_at
+        FROM inserted
+        ORDER BY chat_room_id, id DESC
+    ) l
+    WHERE r.id = l.chat_room_id AND (r.last_message_id IS NULL OR r.last_message_id < l.id);
+
+    INSERT INTO chat_read_states (chat_room_id, user_id, unread_count, last_message_at)
+    SELECT chat_room_id, receiver_id, COUNT(*), MAX(sent_at)
+    FROM inserted
+    GROUP BY chat_room_id, receiver_id
+    ON CONFLICT (chat_room_id, user_id) DO UPDATE
+    SET unread_count = chat_read_states.unread_count + EXCLUDED.unread_count,
+        last_message_at = GREATEST(chat_read_states.last_message_at, EXCLUDED.last_message_at);
+
+    INSERT INTO chat_read_states (chat_room_id, user_id, unread_count, last_message_at)
+    SELECT chat_room_id, sender_id, 0, MAX(sent_at)
+    FROM inserted
+    GROUP BY chat_room_id, sender_id
+    ON CONFLICT (chat_room_id, user_id) DO UPDATE
+    SET last_message_at = GREATEST(chat_read_states.last_message_at, EXCLUDED.last_message_at);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_chat_messages_update_conversations
+    AFTER INSERT ON chat_messages
+    REFERENCING NEW TABLE AS inserted
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION chat_messages_update_conversations();
@@ -0,0 +1,135 @@
+package com.instagram.backend.controllers;
+
+import com.instagram.backend.dtos.request.ChatMessageRequestDTO;
+import com.instagram.backend.entity.ChatMessage;
+import com.instagram.backend.entity.ChatRoom;
+import com.instagram.backend.entity.User;
+import com.instagram.backend.repository.ChatMessageRepository;
+import com.instagram.backend.repository.ChatMessageSearchRepository;
+import com.instagram.backend.repository.ChatReadStateRepository;
+import com.instagram.backend.repository.ChatRoomRepository;
+import com.instagram.backend.repository.UserRepository;
+import com.instagram.backend.repository.projection.RoomMembers;
+import com.instagram.backend.service.AuthenticationFacade;
+import com.instagram.backend.service.ChatMessageGroupCommitter;
+import com.instagram.backend.service.ChatRoomMembershipCache;
+import com.instagram.backend.service.ChatServiceImpl;
+import com.instagram.backend.service.PresenceAudienceCache;
+import com.instagram.backend.service.UserSummaryCache;
+import com.instagram.backend.websocket.ClusterMessagingTemplate;
+import com.instagram.backend.websocket.TypingIndicatorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the /app/chat.sendMessage path through ChatWebSocketController issues no lookups besides the one
+ * membership load, i.e. a send costs exactly one INSERT. The benchmark-tagged test (run with -Pbenchmark)
+ * reports throughput with the database mocked out, so the number reflects the per-frame application cost.
+ */
+@Slf4j
+class ChatSendThroughputTest {
+
+    private static final Long ROOM_ID = 10L;
+    private static final Long SENDER_ID = 1L;
+    private static final Long RECEIVER_ID = 2L;
+    private static final int WARMUP_MESSAGES = 10_000;
+    private static final int MEASURED_MESSAGES = 50_000;
+
+    private ChatRoomRepository chatRoomRepository;
+    private ChatMessageRepository chatMessageRepository;
+    private UserRepository userRepository;
+    private ClusterMessagingTemplate messagingTemplate;
+    private ChatWebSocketController controller;
+
+    @BeforeEach
+    void setUp() {
+        chatRoomRepository = mock(ChatRoomRepository.class);
+        chatMessageRepository = mock(ChatMessageRepository.class);
+        userRepository = mock(UserRepository.class);
+        messagingTemplate = mock(ClusterMessagingTemplate.class);
+        ChatMessageGroupCommitter groupCommitter = mock(ChatMessageGroupCommitter.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        ChatRoom room = ChatRoom.builder().id(ROOM_ID).build();
+        User sender = User.builder().id(SENDER_ID).build();
+        User receiver = User.builder().id(RECEIVER_ID).build();
+        when(chatRoomRepository.findMembersById(ROOM_ID)).thenReturn(Optional.of(new RoomMembers(SENDER_ID, RECEIVER_ID)));
+        when(chatRoomRepository.getReferenceById(ROOM_ID)).thenReturn(room);
+        when(userRepository.getReferenceById(SENDER_ID)).thenReturn(sender);
+        when(userRepository.getReferenceById(RECEIVER_ID)).thenReturn(receiver);
+        AtomicLong ids = new AtomicLong();
+        when(chatMessageRepository.save(any(ChatMessage.class))).thenAnswer(invocation -> {
+            ChatMessage message = invocation.getArgument(0);
+            message.setId(ids.incrementAndGet());
+            return message;
+        });
+
+        ChatRoomMembershipCache membershipCache = new ChatRoomMembershipCache(chatRoomRepository);
+        ReflectionTestUtils.setField(membershipCache, "maxSize", 1000);
+
+        ChatServiceImpl chatService = new ChatServiceImpl(chatRoomRepository, chatMessageRepository, userRepository,
+                mock(AuthenticationFacade.class), messagingTemplate, membershipCache, mock(PresenceAudienceCache.class),
+                groupCommitter, mock(ChatReadStateRepository.class), mock(UserSummaryCache.class),
+                mock(ChatMessageSearchRepository.class), meterRegistry);
+        controller = new ChatWebSocketController(chatService, messagingTemplate, meterRegistry, mock(TypingIndicatorService.class));
+        ReflectionTestUtils.invokeMethod(controller, "registerMetrics");
+    }
+
+    @Test
+    void sendIsOneInsertAfterOneMembershipLoad() {
+        for (int i = 0; i < 3; i++) {
+            controller.handleChatMessage(request());
+        }
+
+        verify(chatMessageRepository, times(3)).save(any(ChatMessage.class));
+        verify(messagingTemplate, times(3)).convertAndSend(eq("/queue/chat/" + ROOM_ID), any(Object.class));
+        verify(chatRoomRepository, times(1)).findMembersById(ROOM_ID);
+        verify(chatRoomRepository, never()).findById(anyLong());
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void reportsSendThroughput() {
+        ChatMessageRequestDTO request = request();
+        for (int i = 0; i < WARMUP_MESSAGES; i++) {
+            controller.handleChatMessage(request);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_MESSAGES; i++) {
+            controller.handleChatMessage(request);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("chat.sendMessage: {} messages in {} s = {} messages/s",
+                MEASURED_MESSAGES, String.format("%.3f", seconds), String.format("%.0f", MEASURED_MESSAGES / seconds));
+
+        verify(chatMessageRepository, times(WARMUP_MESSAGES + MEASURED_MESSAGES)).save(any(ChatMessage.class));
+    }
+
+    private static ChatMessageRequestDTO request() {
+        return ChatMessageRequestDTO.builder()
+                .chatRoomId(ROOM_ID)
+                .senderId(SENDER_ID)
+                .receiverId(RECEIVER_ID)
+                .content("hello")
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.instagram.backend.controllers;
+
+import com.instagram.backend.dtos.request.NotificationReplayRequest;
+import com.instagram.backend.security.JwtService;
+import com.instagram.backend.websocket.NotificationService;
+import com.instagram.backend.websocket.OnlineUserService;
+import com.instagram.backend.websocket.RecipientLocales;
+import com.instagram.backend.websocket.WebSocketListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationWebSocketControllerTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Principal PRINCIPAL = () -> USER_ID.toString();
+
+    private NotificationService notificationService;
+    private WebSocketListener listener;
+    private NotificationWebSocketController controller;
+
+    @BeforeEach
+    void setUp() {
+        notificationService = mock(NotificationService.class);
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.extractUserId("token")).thenReturn(USER_ID);
+        listener = new WebSocketListener(mock(OnlineUserService.class), jwtService, mock(RecipientLocales.class));
+        controller = new NotificationWebSocketController(notificationService);
+    }
+
+    @Test
+    void reconnectWithLastNotificationIdHeaderReplaysOnRequest() {
+        Map<String, Object> sessionAttributes = connect("session-2", "41");
+
+        controller.handleReplay(null, PRINCIPAL, replayHeaders("session-2", sessionAttributes));
+
+        verify(notificationService).replayMissedNotifications(USER_ID, 41L, "session-2");
+    }
+
+    @Test
+    void connectHeaderIsReplayedOnlyOnce() {
+        Map<String, Object> sessionAttributes = connect("session-2", "41");
+
+        controller.handleReplay(null, PRINCIPAL, replayHeaders("session-2", sessionAttributes));
+        controller.handleReplay(null, PRINCIPAL, replayHeaders("session-2", sessionAttributes));
+
+        verify(notificationService, times(1)).replayMissedNotifications(anyLong(), anyLong(), anyString());
+    }
+
+    @Test
+    void payloadIdTakesPrecedenceOverConnectHeader() {
+        Map<String, Object> sessionAttributes = connect("session-3", "41");
+        NotificationReplayRequest request = new NotificationReplayRequest();
+        request.setLastNotificationId(55L);
+
+        controller.handleReplay(request, PRINCIPAL, replayHeaders("session-3", sessionAttributes));
+
+        verify(notificationService).replayMissedNotifications(USER_ID, 55L, "session-3");
+    }
+
+    @Test
+    void nothingIsReplayedWithoutLastSeenId() {
+        Map<String, Object> sessionAttributes = connect("session-4", null);
+
+        controller.handleReplay(null, PRINCIPAL, replayHeaders("session-4", sessionAttributes));
+
+        verify(notificationService, never()).replayMissedNotifications(anyLong(), anyLong(), anyString());
+    }
+
+    private Map<String, Object> connect(String sessionId, String lastNotificationId) {
+        Map<String, Object> sessionAttributes = new HashMap<>();
+        sessionAttributes.put("token", "token");
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setSessionAttributes(sessionAttributes);
+        if (lastNotificationId != null) {
+            accessor.addNativeHeader(WebSocketListener.LAST_NOTIFICATION_ID_HEADER, lastNotificationId);
+        }
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        listener.handleWebSocketConnectListener(new SessionConnectEvent(this, message));
+        return sessionAttributes;
+    }
+
+    private SimpMessageHeaderAccessor replayHeaders(String sessionId, Map<String, Object> sessionAttributes) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setSessionId(sessionId);
+        accessor.setSessionAttributes(sessionAttributes);
+        return accessor;
+    }
+}
@@ -0,0 +1,46 @@
+package com.instagram.backend.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class EmailOutboxRepositoryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private EmailOutboxRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        repository = new EmailOutboxRepository(jdbcTemplate);
+    }
+
+    @Test
+    void purgeCoversFailedRowsAsWellAsSentOnes() {
+        repository.deleteFinishedBefore(7);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(sql.capture(), eq(7), eq(7));
+        assertThat(sql.getValue())
+                .contains("status = 'SENT' AND sent_at < now() - make_interval(days => ?)")
+                .contains("status = 'FAILED' AND next_attempt_at < now() - make_interval(days => ?)");
+    }
+
+    @Test
+    void finishedRowsDropTheirVariables() {
+        repository.markSent(1);
+        repository.markFailed(2, "550 mailbox unavailable");
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(sql.capture(), eq(1L));
+        assertThat(sql.getValue()).contains("status = 'SENT'").contains("variables = NULL");
+        verify(jdbcTemplate).update(sql.capture(), eq("550 mailbox unavailable"), eq(2L));
+        assertThat(sql.getValue()).contains("status = 'FAILED'").contains("variables = NULL");
+    }
+}
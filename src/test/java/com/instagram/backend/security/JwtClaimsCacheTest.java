@@ -0,0 +1,84 @@
+package com.instagram.backend.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtClaimsCacheTest {
+
+    private JwtClaimsCache cache;
+    private List<String> verified;
+
+    @BeforeEach
+    void setUp() {
+        cache = new JwtClaimsCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxSize", 2);
+        verified = new ArrayList<>();
+    }
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() {
+        Function<String, VerifiedToken> verifier = validFor(60_000);
+
+        VerifiedToken first = cache.get("a", verifier);
+        VerifiedToken second = cache.get("a", verifier);
+
+        assertThat(second).isSameAs(first);
+        assertThat(verified).containsExactly("a");
+    }
+
+    @Test
+    void expiredEntryIsVerifiedAgainAndRejected() throws InterruptedException {
+        cache.get("a", validFor(50));
+        Thread.sleep(100);
+
+        assertThatThrownBy(() -> cache.get("a", token -> {
+            verified.add(token);
+            throw new ExpiredJwtException(null, null, "expired");
+        })).isInstanceOf(ExpiredJwtException.class);
+        assertThat(verified).containsExactly("a", "a");
+    }
+
+    @Test
+    void failedVerificationIsNotCached() {
+        Function<String, VerifiedToken> rejecting = token -> {
+            verified.add(token);
+            throw new SignatureException("bad signature");
+        };
+
+        assertThatThrownBy(() -> cache.get("a", rejecting)).isInstanceOf(SignatureException.class);
+        assertThatThrownBy(() -> cache.get("a", rejecting)).isInstanceOf(SignatureException.class);
+        assertThat(verified).containsExactly("a", "a");
+    }
+
+    @Test
+    void leastRecentlyUsedTokenIsEvictedPastTheCap() {
+        Function<String, VerifiedToken> verifier = validFor(60_000);
+        cache.get("a", verifier);
+        cache.get("b", verifier);
+        cache.get("a", verifier);
+        cache.get("c", verifier);
+
+        cache.get("a", verifier);
+        cache.get("b", verifier);
+
+        assertThat(verified).containsExactly("a", "b", "c", "b");
+    }
+
+    private Function<String, VerifiedToken> validFor(long millis) {
+        return token -> {
+            verified.add(token);
+            return new VerifiedToken(token, 1L, List.of(), System.currentTimeMillis() + millis);
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.instagram.backend.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-key-that-is-at-least-256-bits-long";
+
+    private final UserDetails alice = User.withUsername("alice").password("x").authorities("ROLE_USER").build();
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        JwtClaimsCache claimsCache = new JwtClaimsCache(meterRegistry);
+        ReflectionTestUtils.setField(claimsCache, "maxSize", 100);
+        jwtService = new JwtService(claimsCache);
+        jwtService.SECRET_KEY = SECRET;
+        jwtService.EXPIRATION_TIME = 60_000;
+        jwtService.REFRESH_EXPIRATION_TIME = 120_000;
+        jwtService.init();
+    }
+
+    @Test
+    void accessTokenCarriesUserIdAndRoles() {
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken(alice, 42L));
+
+        assertThat(verified.username()).isEqualTo("alice");
+        assertThat(verified.userId()).isEqualTo(42L);
+        assertThat(verified.roles()).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void refreshTokenHasNoUserId() {
+        String refreshToken = jwtService.generateRefreshToken(alice);
+
+        assertThat(jwtService.verify(refreshToken).userId()).isNull();
+        assertThat(jwtService.isRefreshTokenValid(refreshToken, alice)).isTrue();
+        assertThatThrownBy(() -> jwtService.extractUserId(refreshToken)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cachedTokenPastItsExpiryIsRejected() throws InterruptedException {
+        jwtService.EXPIRATION_TIME = 1_500;
+        String token = jwtService.generateToken(alice, 42L);
+        jwtService.verify(token);
+        jwtService.verify(token);
+        assertThat(count("hit")).isEqualTo(1);
+
+        // exp has second precision, so it lands between 0.5s and 1.5s from now
+        Thread.sleep(2_500);
+
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(count("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void tamperedTokenIsRejectedAndNotCached() {
+        String token = jwtService.generateToken(alice, 42L);
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + jwtService.generateToken(alice, 1L).split("\\.")[1] + "." + parts[2];
+
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThat(count("miss")).isEqualTo(2);
+        assertThat(count("hit")).isZero();
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        JwtService other = new JwtService(new JwtClaimsCache(new SimpleMeterRegistry()));
+        other.SECRET_KEY = SECRET.replace("test", "fake");
+        other.EXPIRATION_TIME = 60_000;
+        other.init();
+
+        assertThatThrownBy(() -> jwtService.verify(other.generateToken(alice, 42L))).isInstanceOf(JwtException.class);
+        assertThat(count("hit")).isZero();
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("security.jwt.claims-cache").tag("result", result).counter().count();
+    }
+}
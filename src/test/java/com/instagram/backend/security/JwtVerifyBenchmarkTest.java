@@ -0,0 +1,88 @@
+package com.instagram.backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.ToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-request token check: building a parser and parsing on every call versus {@link JwtService#verify}. The claims
+ * equivalence is a plain unit test; the timing microbenchmark is benchmark-tagged (run with -Pbenchmark) and only logs.
+ */
+@Slf4j
+class JwtVerifyBenchmarkTest {
+
+    private static final String SECRET = "test-secret-key-that-is-at-least-256-bits-long";
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    private JwtService jwtService;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        JwtClaimsCache claimsCache = new JwtClaimsCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(claimsCache, "maxSize", 100);
+        jwtService = new JwtService(claimsCache);
+        jwtService.SECRET_KEY = SECRET;
+        jwtService.EXPIRATION_TIME = 3_600_000;
+        jwtService.init();
+        token = jwtService.generateToken(User.withUsername("alice").password("x").authorities("ROLE_USER").build(), 42L);
+    }
+
+    @Test
+    void verifyMatchesAFullParse() {
+        Claims claims = parsePerCall(token);
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertThat(verified.username()).isEqualTo(claims.getSubject());
+        assertThat(verified.userId()).isEqualTo(((Number) claims.get("userId")).longValue());
+        assertThat(verified.expiresAtMillis()).isEqualTo(claims.getExpiration().getTime());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void reportsVerifyCost() {
+        double parseNanos = nanosPerCall(t -> parsePerCall(t).getExpiration().getTime());
+        double verifyNanos = nanosPerCall(t -> jwtService.verify(t).expiresAtMillis());
+
+        log.info("Parse per call: {} ns/token", String.format("%.0f", parseNanos));
+        log.info("verify(): {} ns/token ({}% of parse per call)", String.format("%.0f", verifyNanos),
+                String.format("%.1f", 100.0 * verifyNanos / parseNanos));
+    }
+
+    private double nanosPerCall(ToLongFunction<String> check) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += check.applyAsLong(token);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += check.applyAsLong(token);
+        }
+        long elapsed = System.nanoTime() - start;
+        // Consumed so the checks cannot be optimized away
+        log.debug("Checked {}", sink);
+        return (double) elapsed / MEASURED_ITERATIONS;
+    }
+
+    // What every request paid before: derive the key, build a parser, verify the signature and decode the claims
+    private Claims parsePerCall(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
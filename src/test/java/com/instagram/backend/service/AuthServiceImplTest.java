@@ -0,0 +1,68 @@
+package com.instagram.backend.service;
+
+import com.instagram.backend.entity.User;
+import com.instagram.backend.exception.BadCredentialsException;
+import com.instagram.backend.exception.TooManyRequestsException;
+import com.instagram.backend.repository.PasswordResetTokenRepository;
+import com.instagram.backend.repository.RoleRepository;
+import com.instagram.backend.repository.UserRepository;
+import com.instagram.backend.repository.VerificationTokenRepository;
+import com.instagram.backend.security.CustomUserDetailsService;
+import com.instagram.backend.security.JwtService;
+import com.instagram.backend.utils.InMemoryOtpSessionStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthServiceImplTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private InMemoryOtpSessionStore otpSessionStore;
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        otpSessionStore = new InMemoryOtpSessionStore(60_000, 1000, 16, 10);
+        authService = new AuthServiceImpl(userRepository, new ModelMapper(), mock(PasswordEncoder.class),
+                mock(RoleRepository.class), mock(VerificationTokenRepository.class), mock(AuthenticationManager.class),
+                mock(EmailService.class), mock(CustomUserDetailsService.class), mock(JwtService.class),
+                mock(PasswordResetTokenRepository.class), otpSessionStore);
+        ReflectionTestUtils.setField(authService, "maxOtpAttempts", MAX_ATTEMPTS);
+
+        User user = new User();
+        user.setId(5L);
+        user.setUsername("alice");
+        user.setOtp("123456");
+        user.setOtpExpiry(Instant.now().plus(Duration.ofMinutes(5)));
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+
+        otpSessionStore.save("temp", "alice");
+    }
+
+    @Test
+    void sessionIsDiscardedAfterMaxFailedAttempts() {
+        for (int i = 1; i < MAX_ATTEMPTS; i++) {
+            assertThatThrownBy(() -> authService.verifyOtp("temp", "000000"))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+        assertThat(otpSessionStore.exists("temp")).isTrue();
+
+        assertThatThrownBy(() -> authService.verifyOtp("temp", "000000"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(otpSessionStore.exists("temp")).isFalse();
+    }
+}
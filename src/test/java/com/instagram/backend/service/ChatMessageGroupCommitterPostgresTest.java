@@ -0,0 +1,102 @@
+package com.instagram.backend.service;
+
+import com.instagram.backend.dtos.response.ChatMessageResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the group-commit INSERT against a real Postgres, since parameter types in a VALUES list are resolved by
+ * the server and a mocked JdbcTemplate cannot catch a mismatch.
+ */
+class ChatMessageGroupCommitterPostgresTest {
+
+    // chat_messages as Hibernate generates it, without the foreign keys and the V8/V9 triggers
+    private static final String CREATE_TABLE_SQL = """
+            CREATE TABLE chat_messages (
+                id           BIGSERIAL    PRIMARY KEY,
+                chat_room_id BIGINT       NOT NULL,
+                sender_id    BIGINT       NOT NULL,
+                receiver_id  BIGINT       NOT NULL,
+                content      TEXT         NOT NULL,
+                sent_at      TIMESTAMP(6),
+                delivered_at TIMESTAMP(6),
+                seen_at      TIMESTAMP(6),
+                status       VARCHAR(255) NOT NULL CHECK (status IN ('SENT', 'DELIVERED', 'SEEN'))
+            )
+            """;
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private ChatMessageGroupCommitter committer;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        committer = new ChatMessageGroupCommitter(jdbcTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(committer, "enabled", true);
+        ReflectionTestUtils.setField(committer, "shardCount", 2);
+        ReflectionTestUtils.setField(committer, "queueCapacity", 64);
+        ReflectionTestUtils.setField(committer, "enqueueTimeoutMillis", 100L);
+        ReflectionTestUtils.setField(committer, "maxBatchSize", 64);
+        ReflectionTestUtils.setField(committer, "maxDelayMillis", 20L);
+        ReflectionTestUtils.invokeMethod(committer, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(committer, "stop");
+    }
+
+    @Test
+    void batchIsInsertedAndEveryIdMapsBackToItsRow() throws Exception {
+        List<CompletableFuture<ChatMessageResponseDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(committer.submit(1L + i % 3, 10L + i, 20L + i, "message " + i));
+        }
+
+        for (CompletableFuture<ChatMessageResponseDTO> future : futures) {
+            ChatMessageResponseDTO saved = future.get(10, TimeUnit.SECONDS);
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                    "SELECT chat_room_id, sender_id, receiver_id, content, sent_at, status FROM chat_messages WHERE id = ?",
+                    saved.getId());
+
+            assertThat(row.get("chat_room_id")).isEqualTo(saved.getChatRoomId());
+            assertThat(row.get("sender_id")).isEqualTo(saved.getSenderId());
+            assertThat(row.get("receiver_id")).isEqualTo(saved.getReceiverId());
+            assertThat(row.get("content")).isEqualTo(saved.getContent());
+            assertThat(((Timestamp) row.get("sent_at")).toLocalDateTime()).isBeforeOrEqualTo(LocalDateTime.now());
+            assertThat(row.get("status")).isEqualTo("SENT");
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM chat_messages", Long.class)).isEqualTo(20L);
+    }
+}
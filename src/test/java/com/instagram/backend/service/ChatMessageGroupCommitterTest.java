@@ -0,0 +1,106 @@
+package com.instagram.backend.service;
+
+import com.instagram.backend.dtos.response.ChatMessageResponseDTO;
+import com.instagram.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatMessageGroupCommitterTest {
+
+    private static final int COLUMNS = 7;
+
+    private JdbcTemplate jdbcTemplate;
+    private ChatMessageGroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        committer = new ChatMessageGroupCommitter(jdbcTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(committer, "enabled", true);
+        ReflectionTestUtils.setField(committer, "shardCount", 1);
+        ReflectionTestUtils.setField(committer, "queueCapacity", 1);
+        ReflectionTestUtils.setField(committer, "enqueueTimeoutMillis", 10L);
+        ReflectionTestUtils.setField(committer, "maxBatchSize", 64);
+        ReflectionTestUtils.setField(committer, "maxDelayMillis", 50L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ReflectionTestUtils.invokeMethod(committer, "stop");
+    }
+
+    @Test
+    void idsAreMappedByOrdinalEvenWhenRowsComeBackShuffled() throws Exception {
+        ReflectionTestUtils.setField(committer, "queueCapacity", 64);
+        // The database returns the rows in reverse and the ids out of insertion order; each id is
+        // derived from the message content so the test can tell which row it belongs to
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            RowCallbackHandler handler = invocation.getArgument(1);
+            int rows = (args.length - 2) / COLUMNS;
+            for (int row = rows - 1; row >= 0; row--) {
+                int offset = 2 + row * COLUMNS;
+                String content = (String) args[offset + 4];
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getInt(1)).thenReturn((Integer) args[offset]);
+                when(rs.getLong(2)).thenReturn(Long.parseLong(content.substring(1)));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        ReflectionTestUtils.invokeMethod(committer, "start");
+
+        List<CompletableFuture<ChatMessageResponseDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(committer.submit(1L, 2L, 3L, "m" + (900 - i * 7)));
+        }
+
+        for (CompletableFuture<ChatMessageResponseDTO> future : futures) {
+            ChatMessageResponseDTO saved = future.get(5, TimeUnit.SECONDS);
+            assertThat(saved.getId()).isEqualTo(Long.parseLong(saved.getContent().substring(1)));
+        }
+    }
+
+    @Test
+    void fullShardRejectsInsteadOfBlocking() throws Exception {
+        CountDownLatch insertStarted = new CountDownLatch(1);
+        CountDownLatch releaseInsert = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            insertStarted.countDown();
+            releaseInsert.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        ReflectionTestUtils.invokeMethod(committer, "start");
+
+        committer.submit(1L, 2L, 3L, "in flight");
+        assertThat(insertStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        committer.submit(1L, 2L, 3L, "queued");
+        CompletableFuture<ChatMessageResponseDTO> rejected = committer.submit(1L, 2L, 3L, "rejected");
+        releaseInsert.countDown();
+
+        assertThatThrownBy(() -> rejected.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TooManyRequestsException.class);
+    }
+}
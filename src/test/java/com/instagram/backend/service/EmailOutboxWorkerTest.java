@@ -0,0 +1,140 @@
+package com.instagram.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.instagram.backend.repository.EmailOutboxRepository;
+import com.instagram.backend.repository.projection.OutboxEmail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxWorkerTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutboxRepository outboxRepository;
+    private SpringTemplateEngine templateEngine;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(EmailOutboxRepository.class);
+        templateEngine = mock(SpringTemplateEngine.class);
+        when(templateEngine.process(anyString(), any(IContext.class))).thenReturn("<p>Your code is 123456</p>");
+    }
+
+    @Test
+    void batchIsDeliveredOverSmtpAndMarkedSent() throws Exception {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        EmailOutboxWorker worker = worker(mailSender);
+        when(outboxRepository.claimDue(anyDouble(), eq(20))).thenReturn(List.of(email(1, 1), email(2, 1)));
+
+        assertThat(worker.deliverBatch()).isEqualTo(2);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        assertThat(received[0].getSubject()).isEqualTo("Your OTP for Login");
+        verify(outboxRepository).markSent(1);
+        verify(outboxRepository).markSent(2);
+        verify(outboxRepository, never()).markForRetry(any(Long.class), anyDouble(), anyString());
+    }
+
+    @Test
+    void onlyTheRejectedMessageOfABatchIsRetried() {
+        JavaMailSender mailSender = rejectingSecondMessage();
+        EmailOutboxWorker worker = worker(mailSender);
+        when(outboxRepository.claimDue(anyDouble(), eq(20))).thenReturn(List.of(email(1, 1), email(2, 1)));
+
+        worker.deliverBatch();
+
+        verify(outboxRepository).markSent(1);
+        verify(outboxRepository).markForRetry(eq(2L), anyDouble(), eq("550 mailbox unavailable"));
+        verify(outboxRepository, never()).markFailed(any(Long.class), anyString());
+    }
+
+    @Test
+    void rejectedMessageFailsOnItsLastAttempt() {
+        JavaMailSender mailSender = rejectingSecondMessage();
+        EmailOutboxWorker worker = worker(mailSender);
+        when(outboxRepository.claimDue(anyDouble(), eq(20))).thenReturn(List.of(email(1, 1), email(2, MAX_ATTEMPTS)));
+
+        worker.deliverBatch();
+
+        verify(outboxRepository).markSent(1);
+        verify(outboxRepository).markFailed(2, "550 mailbox unavailable");
+        verify(outboxRepository, never()).markForRetry(any(Long.class), anyDouble(), anyString());
+    }
+
+    @Test
+    void cleanupPurgesFinishedRowsPastRetention() {
+        EmailOutboxWorker worker = worker(mock(JavaMailSender.class));
+
+        worker.deleteFinished();
+
+        verify(outboxRepository).deleteFinishedBefore(7);
+    }
+
+    private EmailOutboxWorker worker(JavaMailSender mailSender) {
+        EmailOutboxWorker worker = new EmailOutboxWorker(outboxRepository, mailSender, templateEngine,
+                new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(worker, "fromEmail", "noreply@instaclone.test");
+        ReflectionTestUtils.setField(worker, "batchSize", 20);
+        ReflectionTestUtils.setField(worker, "leaseMillis", 60_000L);
+        ReflectionTestUtils.setField(worker, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(worker, "backoffInitialMillis", 5_000L);
+        ReflectionTestUtils.setField(worker, "backoffMaxMillis", 600_000L);
+        ReflectionTestUtils.setField(worker, "retentionDays", 7);
+        return worker;
+    }
+
+    // Accepts the first message of a batch and rejects the second, as an SMTP server refusing one recipient does
+    private static JavaMailSender rejectingSecondMessage() {
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+        doAnswer(invocation -> {
+            MimeMessage rejected = null;
+            for (Object message : invocation.getArguments()) {
+                if (((MimeMessage) message).getAllRecipients()[0].toString().equals("user2@example.com")) {
+                    rejected = (MimeMessage) message;
+                }
+            }
+            throw new MailSendException(Map.of(rejected, new Exception("550 mailbox unavailable")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+        return mailSender;
+    }
+
+    private static OutboxEmail email(long id, int attempts) {
+        return new OutboxEmail(id, "user" + id + "@example.com", "Your OTP for Login", "otp-verification",
+                "{\"otp\":\"123456\"}", attempts, LocalDateTime.now().minusSeconds(5));
+    }
+}
@@ -0,0 +1,98 @@
+package com.instagram.backend.utils;
+
+import com.instagram.backend.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryOtpSessionStoreTest {
+
+    private static final long TICK_MS = 10;
+
+    @Test
+    void wheelRemovesExpiredSessionsWithoutLookups() throws InterruptedException {
+        InMemoryOtpSessionStore store = new InMemoryOtpSessionStore(50, TICK_MS, 4, 10);
+        store.save("temp", "alice");
+        store.tick();
+
+        Thread.sleep(100);
+        tick(store, 20);
+
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void sessionSurvivesSlotVisitsUntilItsRoundsRunOut() {
+        // 1000 ticks of TTL on 2 slots: the session's slot comes up every other tick for hundreds of rounds
+        InMemoryOtpSessionStore store = new InMemoryOtpSessionStore(10_000, TICK_MS, 2, 10);
+        store.save("temp", "alice");
+
+        tick(store, 100);
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.getUsername("temp")).isEqualTo("alice");
+    }
+
+    @Test
+    void refreshedSessionIsRescheduledInsteadOfExpired() throws InterruptedException {
+        InMemoryOtpSessionStore store = new InMemoryOtpSessionStore(100, TICK_MS, 4, 10);
+        store.save("temp", "alice");
+        store.tick();
+
+        Thread.sleep(60);
+        store.refresh("temp");
+        // The original slot comes due within these ticks and must push the session to its new deadline
+        tick(store, 12);
+
+        assertThat(store.getUsername("temp")).isEqualTo("alice");
+
+        Thread.sleep(150);
+        tick(store, 30);
+
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void lookupAfterDeadlineFindsNothingBeforeTheNextTick() throws InterruptedException {
+        InMemoryOtpSessionStore store = new InMemoryOtpSessionStore(20, TICK_MS, 4, 10);
+        store.save("temp", "alice");
+
+        Thread.sleep(40);
+
+        assertThat(store.getUsername("temp")).isNull();
+        assertThat(store.recordFailedAttempt("temp")).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void failedAttemptsAreCountedPerSessionAndSurviveRefresh() {
+        InMemoryOtpSessionStore store = new InMemoryOtpSessionStore(60_000, TICK_MS, 4, 10);
+        store.save("temp", "alice");
+        store.save("other", "bob");
+
+        assertThat(store.recordFailedAttempt("temp")).isEqualTo(1);
+        assertThat(store.recordFailedAttempt("temp")).isEqualTo(2);
+        store.refresh("temp");
+        assertThat(store.recordFailedAttempt("temp")).isEqualTo(3);
+        assertThat(store.recordFailedAttempt("other")).isEqualTo(1);
+        assertThat(store.recordFailedAttempt("unknown")).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void fullStoreRejectsNewSessions() {
+        InMemoryOtpSessionStore store = new InMemoryOtpSessionStore(60_000, TICK_MS, 4, 1);
+        store.save("temp", "alice");
+
+        assertThatThrownBy(() -> store.save("other", "bob")).isInstanceOf(TooManyRequestsException.class);
+
+        store.remove("temp");
+        store.save("other", "bob");
+        assertThat(store.getUsername("other")).isEqualTo("bob");
+    }
+
+    private static void tick(InMemoryOtpSessionStore store, int times) {
+        for (int i = 0; i < times; i++) {
+            store.tick();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.instagram.backend.utils;
+
+import com.instagram.backend.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @ParameterizedTest
+    @ValueSource(floats = {0f, 0.0607927f, 0.1f, 1e-20f, 1.0000001f, 3.4028235e38f, Float.MIN_VALUE})
+    void scoreRoundTripsBitForBit(float score) {
+        KeysetCursor.ScorePosition position = KeysetCursor.decodeScore(KeysetCursor.encodeScore(score, 42L));
+
+        assertThat(Float.floatToIntBits(position.score())).isEqualTo(Float.floatToIntBits(score));
+        assertThat(position.id()).isEqualTo(42L);
+    }
+
+    @Test
+    void timestampRoundTripsWithNanos() {
+        LocalDateTime timestamp = LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000);
+
+        KeysetCursor.Position position = KeysetCursor.decode(KeysetCursor.encode(timestamp, 7L));
+
+        assertThat(position.timestamp()).isEqualTo(timestamp);
+        assertThat(position.id()).isEqualTo(7L);
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = KeysetCursor.encodeScore(0.123456f, Long.MAX_VALUE);
+
+        assertThat(cursor).doesNotContain("+", "/", "=");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "bm8tc2VwYXJhdG9y", "YWJjfDEy"})
+    void malformedScoreCursorIsRejected(String cursor) {
+        assertThatThrownBy(() -> KeysetCursor.decodeScore(cursor)).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void timestampCursorIsNotAcceptedAsScoreCursor() {
+        String raw = LocalDateTime.of(2026, 1, 1, 0, 0) + "|5";
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> KeysetCursor.decodeScore(cursor)).isInstanceOf(InvalidCursorException.class);
+    }
+}
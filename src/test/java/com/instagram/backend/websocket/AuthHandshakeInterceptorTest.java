@@ -0,0 +1,87 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.security.JwtService;
+import com.instagram.backend.security.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.socket.WebSocketHandler;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthHandshakeInterceptorTest {
+
+    private static final String TOKEN = "access-token";
+
+    private JwtService jwtService;
+    private AuthHandshakeInterceptor interceptor;
+    private Map<String, Object> attributes;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        interceptor = new AuthHandshakeInterceptor(jwtService);
+        attributes = new HashMap<>();
+    }
+
+    @Test
+    void principalIsTheUserIdClaim() throws Exception {
+        when(jwtService.verify(TOKEN)).thenReturn(token(42L, System.currentTimeMillis() + 60_000));
+        MockHttpServletRequest request = request("token=" + TOKEN);
+        request.addHeader("Accept-Language", "tr-TR,en;q=0.8");
+
+        assertTrue(handshake(request));
+
+        assertEquals("42", ((Principal) attributes.get("user")).getName());
+        assertEquals(Locale.forLanguageTag("tr-TR"), attributes.get(RecipientLocales.LOCALE_ATTRIBUTE));
+    }
+
+    @Test
+    void tokenWithoutUserIdIsRejected() throws Exception {
+        when(jwtService.verify(TOKEN)).thenReturn(token(null, System.currentTimeMillis() + 60_000));
+
+        assertFalse(handshake(request("token=" + TOKEN)));
+        assertFalse(attributes.containsKey("user"));
+    }
+
+    @Test
+    void expiredTokenIsRejected() throws Exception {
+        when(jwtService.verify(TOKEN)).thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+        assertFalse(handshake(request("token=" + TOKEN)));
+    }
+
+    @Test
+    void missingTokenIsRejected() throws Exception {
+        assertFalse(handshake(request(null)));
+    }
+
+    private boolean handshake(MockHttpServletRequest request) throws Exception {
+        return interceptor.beforeHandshake(new ServletServerHttpRequest(request),
+                new ServletServerHttpResponse(new MockHttpServletResponse()), mock(WebSocketHandler.class), attributes);
+    }
+
+    private static MockHttpServletRequest request(String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ws");
+        request.setQueryString(query);
+        return request;
+    }
+
+    private static VerifiedToken token(Long userId, long expiresAtMillis) {
+        return new VerifiedToken("alice", userId, List.of("ROLE_USER"), expiresAtMillis);
+    }
+}
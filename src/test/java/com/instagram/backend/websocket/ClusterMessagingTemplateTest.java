@@ -0,0 +1,94 @@
+package com.instagram.backend.websocket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClusterMessagingTemplateTest {
+
+    private static final String DESTINATION = "/queue/notifications";
+
+    private SimpMessagingTemplate localTemplate;
+    private ClusterMessageRelay relay;
+    private PresenceRegistry presenceRegistry;
+    private OnlineUserService onlineUserService;
+    private ClusterMessagingTemplate template;
+
+    @BeforeEach
+    void setUp() {
+        localTemplate = mock(SimpMessagingTemplate.class);
+        relay = mock(ClusterMessageRelay.class);
+        presenceRegistry = mock(PresenceRegistry.class);
+        onlineUserService = mock(OnlineUserService.class);
+        template = new ClusterMessagingTemplate(localTemplate, relay, onlineUserService, presenceRegistry);
+        when(relay.isEnabled()).thenReturn(true);
+        when(presenceRegistry.seesOtherNodes()).thenReturn(true);
+    }
+
+    @Test
+    void userOfflineEverywhereIsNotRelayed() {
+        when(presenceRegistry.isOnlineElsewhere(7L)).thenReturn(false);
+
+        template.convertAndSendToUser("7", DESTINATION, "payload");
+
+        verify(localTemplate).convertAndSendToUser("7", DESTINATION, "payload");
+        verify(relay, never()).publish(anyString(), anyString(), any());
+    }
+
+    @Test
+    void userOnAnotherNodeIsRelayed() {
+        when(presenceRegistry.isOnlineElsewhere(7L)).thenReturn(true);
+
+        template.convertAndSendToUser("7", DESTINATION, "payload");
+
+        verify(relay).publish("7", DESTINATION, "payload");
+    }
+
+    @Test
+    void everythingIsRelayedWhenOtherNodesAreUnknown() {
+        when(presenceRegistry.seesOtherNodes()).thenReturn(false);
+
+        template.convertAndSendToUser("7", DESTINATION, "payload");
+
+        verify(relay).publish("7", DESTINATION, "payload");
+        verify(presenceRegistry, never()).isOnlineElsewhere(any());
+    }
+
+    @Test
+    void batchedSendResolvesOtherNodesWithOneLookup() {
+        List<Long> users = List.of(7L, 8L, 9L);
+        when(presenceRegistry.onlineElsewhere(users)).thenReturn(Set.of(8L));
+
+        template.convertAndSendToUsers(users, DESTINATION, "payload");
+
+        verify(localTemplate).convertAndSendToUser("7", DESTINATION, "payload");
+        verify(localTemplate).convertAndSendToUser("8", DESTINATION, "payload");
+        verify(localTemplate).convertAndSendToUser("9", DESTINATION, "payload");
+        verify(presenceRegistry).onlineElsewhere(users);
+        verify(presenceRegistry, never()).isOnlineElsewhere(any());
+        verify(relay).publish("8", DESTINATION, "payload");
+        verify(relay, never()).publish("7", DESTINATION, "payload");
+        verify(relay, never()).publish("9", DESTINATION, "payload");
+    }
+
+    @Test
+    void offlineUserIsUnreachableEvenWithTheRelay() {
+        when(onlineUserService.isUserOnline(7L)).thenReturn(false);
+        when(onlineUserService.isUserOnline(8L)).thenReturn(true);
+
+        assertFalse(template.isReachable(7L));
+        assertTrue(template.isReachable(8L));
+    }
+}
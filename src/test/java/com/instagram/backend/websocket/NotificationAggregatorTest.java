@@ -0,0 +1,141 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.entity.enums.NotificationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationAggregatorTest {
+
+    private static final Long RECIPIENT = 1L;
+    private static final Long POST = 100L;
+
+    private NotificationAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new NotificationAggregator();
+        ReflectionTestUtils.setField(aggregator, "windowMillis", 60_000L);
+    }
+
+    @Test
+    void firstEventOpensWindowAndLaterEventsCoalesce() {
+        NotificationAggregator.AggregationWindow window = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 10L);
+
+        assertThat(window).isNotNull();
+        assertThat(aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 11L)).isNull();
+        assertThat(aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 12L)).isNull();
+        assertThat(window.getActorCount()).isEqualTo(3);
+        assertThat(window.getLatestActorIds()).containsExactly(12L, 11L, 10L);
+    }
+
+    @Test
+    void repeatedActorIsCountedOnce() {
+        NotificationAggregator.AggregationWindow window = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 10L);
+        aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 11L);
+        aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 10L);
+        aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 11L);
+
+        assertThat(window.getActorCount()).isEqualTo(2);
+        assertThat(window.getLatestActorIds()).containsExactly(11L, 10L);
+    }
+
+    @Test
+    void latestActorsAreBounded() {
+        NotificationAggregator.AggregationWindow window = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 1L);
+        for (long actor = 2; actor <= 6; actor++) {
+            aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, actor);
+        }
+
+        assertThat(window.getActorCount()).isEqualTo(6);
+        assertThat(window.getLatestActorIds()).hasSize(NotificationAggregator.MAX_LATEST_ACTORS).startsWith(6L);
+    }
+
+    @Test
+    void keysAreSeparatedByTargetAndType() {
+        assertThat(aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 10L)).isNotNull();
+        assertThat(aggregator.accept(RECIPIENT, NotificationType.LIKE, POST + 1, 10L)).isNotNull();
+        assertThat(aggregator.accept(RECIPIENT, NotificationType.COMMENT, POST, 10L)).isNotNull();
+        assertThat(aggregator.openWindowCount()).isEqualTo(3);
+    }
+
+    @Test
+    void drainReturnsOnlyExpiredPersistedWindowsWithPendingActors() {
+        NotificationAggregator.AggregationWindow coalesced = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 10L);
+        aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 11L);
+        coalesced.attach(500L);
+
+        NotificationAggregator.AggregationWindow single = aggregator.accept(RECIPIENT, NotificationType.COMMENT, POST, 10L);
+        single.attach(501L);
+
+        NotificationAggregator.AggregationWindow unpersisted = aggregator.accept(RECIPIENT, NotificationType.FOLLOW, null, 12L);
+        aggregator.accept(RECIPIENT, NotificationType.FOLLOW, null, 13L);
+
+        assertThat(aggregator.drainExpired()).isEmpty();
+
+        ReflectionTestUtils.setField(aggregator, "windowMillis", 0L);
+        List<NotificationAggregator.AggregationWindow> drained = aggregator.drainExpired();
+
+        assertThat(drained).containsExactly(coalesced);
+        assertThat(unpersisted.getNotificationId()).isNull();
+        assertThat(aggregator.openWindowCount()).isZero();
+    }
+
+    @Test
+    void abandonedWindowIsReplacedByTheNextEvent() {
+        NotificationAggregator.AggregationWindow dropped = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 10L);
+        aggregator.abandon(dropped);
+
+        NotificationAggregator.AggregationWindow fresh = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 11L);
+
+        assertThat(fresh).isNotNull().isNotSameAs(dropped);
+        assertThat(fresh.getActorCount()).isEqualTo(1);
+    }
+
+    @Test
+    void windowReplacingOneWithPendingActorsDefersItsPush() {
+        NotificationAggregator.AggregationWindow first = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 10L);
+        first.attach(500L);
+        aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 11L);
+        assertThat(first.isPushDeferred()).isFalse();
+
+        ReflectionTestUtils.setField(aggregator, "windowMillis", 0L);
+        NotificationAggregator.AggregationWindow next = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 12L);
+        next.attach(501L);
+
+        assertThat(next.isPushDeferred()).isTrue();
+        // The deferred window is pushed when it closes even though nothing was coalesced into it
+        assertThat(aggregator.drainExpired()).containsExactlyInAnyOrder(first, next);
+    }
+
+    @Test
+    void windowOpenedRightAfterAFlushDefersItsPush() throws InterruptedException {
+        ReflectionTestUtils.setField(aggregator, "windowMillis", 200L);
+        NotificationAggregator.AggregationWindow first = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 10L);
+        first.attach(500L);
+        aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 11L);
+        Thread.sleep(250);
+        assertThat(aggregator.drainExpired()).containsExactly(first);
+
+        NotificationAggregator.AggregationWindow next = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 12L);
+
+        assertThat(next.isPushDeferred()).isTrue();
+    }
+
+    @Test
+    void windowAfterAQuietOneIsPushedRightAway() {
+        NotificationAggregator.AggregationWindow first = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 10L);
+        first.attach(500L);
+        ReflectionTestUtils.setField(aggregator, "windowMillis", 0L);
+        assertThat(aggregator.drainExpired()).isEmpty();
+
+        ReflectionTestUtils.setField(aggregator, "windowMillis", 60_000L);
+        NotificationAggregator.AggregationWindow next = aggregator.accept(RECIPIENT, NotificationType.LIKE, POST, 11L);
+
+        assertThat(next.isPushDeferred()).isFalse();
+    }
+}
@@ -0,0 +1,66 @@
+package com.instagram.backend.websocket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationPartitionManagerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NotificationPartitionManager partitionManager;
+    private String currentPartition;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        partitionManager = new NotificationPartitionManager(jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(partitionManager, "premakeMonths", 0);
+        ReflectionTestUtils.setField(partitionManager, "retentionMonths", 12);
+        ReflectionTestUtils.setField(partitionManager, "compactAfterMonths", 3);
+        currentPartition = "notifications_p" + YearMonth.now().format(DateTimeFormatter.ofPattern("yyyy_MM"));
+    }
+
+    @Test
+    void rowsInDefaultPartitionAreMovedBeforeAttaching() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(currentPartition))).thenReturn(false);
+
+        partitionManager.maintainPartitions();
+
+        LocalDate from = YearMonth.now().atDay(1);
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("CREATE TABLE " + currentPartition
+                + " (LIKE notifications INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        order.verify(jdbcTemplate).update(contains("DELETE FROM notifications_default"), eq(from), eq(from.plusMonths(1)));
+        order.verify(jdbcTemplate).execute(startsWith("ALTER TABLE notifications ATTACH PARTITION " + currentPartition));
+    }
+
+    @Test
+    void existingPartitionIsLeftAlone() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(currentPartition))).thenReturn(true);
+
+        partitionManager.maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).update(contains("notifications_default"), any(Object[].class));
+    }
+}
@@ -0,0 +1,163 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OnlineUserServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    private RecordingRegistry registry;
+    private OnlineUserService onlineUserService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new RecordingRegistry();
+        onlineUserService = new OnlineUserService(mock(UserRepository.class), mock(ApplicationEventPublisher.class), registry);
+        ReflectionTestUtils.setField(onlineUserService, "staleSessionTimeoutMillis", 60_000L);
+    }
+
+    @Test
+    void reapingClosesTheSocketAndMarksTheUserOffline() throws Exception {
+        WebSocketSession socket = open("s1");
+        onlineUserService.userConnected(USER_ID, "s1");
+        ReflectionTestUtils.setField(onlineUserService, "staleSessionTimeoutMillis", -1L);
+
+        onlineUserService.reapStaleSessions();
+
+        verify(socket).close(any(CloseStatus.class));
+        assertThat(onlineUserService.isUserOnline(USER_ID)).isFalse();
+        assertThat(registry.transitions).containsExactly(true, false);
+    }
+
+    @Test
+    void frameFromReapedButLiveSessionTracksItAgain() throws Exception {
+        open("s1");
+        onlineUserService.userConnected(USER_ID, "s1");
+        ReflectionTestUtils.setField(onlineUserService, "staleSessionTimeoutMillis", -1L);
+        onlineUserService.reapStaleSessions();
+
+        onlineUserService.activityInterceptor().preSend(frame("s1", SimpMessageType.HEARTBEAT), null);
+
+        assertThat(onlineUserService.isUserOnline(USER_ID)).isTrue();
+        assertThat(registry.transitions).containsExactly(true, false, true);
+    }
+
+    @Test
+    void framesOfUnknownSocketsAreIgnored() {
+        onlineUserService.activityInterceptor().preSend(frame("never-opened", SimpMessageType.MESSAGE), null);
+
+        assertThat(onlineUserService.isUserOnline(USER_ID)).isFalse();
+        assertThat(registry.transitions).isEmpty();
+    }
+
+    @Test
+    void concurrentConnectsAndClosesKeepTransitionsInOrder() throws Exception {
+        int threads = 8;
+        int rounds = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            String sessionId = "s" + t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < rounds; i++) {
+                    onlineUserService.userConnected(USER_ID, sessionId);
+                    onlineUserService.sessionClosed(sessionId);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(onlineUserService.isUserOnline(USER_ID)).isFalse();
+        List<Boolean> transitions = registry.transitions;
+        assertThat(transitions).isNotEmpty();
+        for (int i = 0; i < transitions.size(); i++) {
+            assertThat(transitions.get(i)).as("transition %d", i).isEqualTo(i % 2 == 0);
+        }
+    }
+
+    private WebSocketSession open(String sessionId) throws Exception {
+        WebSocketSession socket = mock(WebSocketSession.class);
+        when(socket.getId()).thenReturn(sessionId);
+        onlineUserService.decorate(mock(WebSocketHandler.class)).afterConnectionEstablished(socket);
+        return socket;
+    }
+
+    private Message<byte[]> frame(String sessionId, SimpMessageType type) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setSessionId(sessionId);
+        accessor.setUser(() -> USER_ID.toString());
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void onlineAmongLooksUpNonLocalUsersInOneBatch() throws Exception {
+        open("s1");
+        onlineUserService.userConnected(USER_ID, "s1");
+        registry.remoteUsers = Set.of(3L);
+
+        Set<Long> online = onlineUserService.onlineAmong(List.of(USER_ID, 2L, 3L, 4L));
+
+        assertThat(online).containsExactlyInAnyOrder(USER_ID, 3L);
+        assertThat(registry.lookups).hasSize(1);
+        assertThat(registry.lookups.get(0)).containsExactlyInAnyOrder(2L, 3L, 4L);
+    }
+
+    private static final class RecordingRegistry implements PresenceRegistry {
+        private final List<Boolean> transitions = Collections.synchronizedList(new ArrayList<>());
+        private final List<Collection<Long>> lookups = new ArrayList<>();
+        private Set<Long> remoteUsers = Set.of();
+
+        @Override
+        public void userOnline(Long userId) {
+            transitions.add(true);
+        }
+
+        @Override
+        public void userOffline(Long userId) {
+            transitions.add(false);
+        }
+
+        @Override
+        public boolean isOnlineElsewhere(Long userId) {
+            return false;
+        }
+
+        @Override
+        public Set<Long> onlineElsewhere(Collection<Long> userIds) {
+            lookups.add(List.copyOf(userIds));
+            return userIds.stream().filter(remoteUsers::contains).collect(Collectors.toSet());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.dtos.response.PresenceResponse;
+import com.instagram.backend.service.PresenceAudienceCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PresenceBroadcasterTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long PEER_ID = 8L;
+
+    private PresenceAudienceCache audienceCache;
+    private ClusterMessagingTemplate messagingTemplate;
+    private OnlineUserService onlineUserService;
+    private PresenceBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        audienceCache = mock(PresenceAudienceCache.class);
+        messagingTemplate = mock(ClusterMessagingTemplate.class);
+        onlineUserService = mock(OnlineUserService.class);
+        broadcaster = new PresenceBroadcaster(audienceCache, messagingTemplate, onlineUserService, new SimpleMeterRegistry());
+        when(audienceCache.getAudience(USER_ID)).thenReturn(Set.of(PEER_ID));
+        when(onlineUserService.onlineAmong(Set.of(PEER_ID))).thenReturn(Set.of(PEER_ID));
+    }
+
+    @Test
+    void flappingWithinAnIntervalPushesNothingNew() {
+        change(true);
+        broadcaster.flush();
+        change(false);
+        change(true);
+        broadcaster.flush();
+
+        verify(messagingTemplate, times(1)).convertAndSendToUsers(
+                eq(Set.of(PEER_ID)), eq(PresenceBroadcaster.PRESENCE_DESTINATION), any(PresenceResponse.class));
+    }
+
+    @Test
+    void reconnectAfterSuppressedOfflinePushesOnlineAgain() {
+        change(true);
+        broadcaster.flush();
+
+        // Left this node while still online on another one
+        when(onlineUserService.isUserOnline(USER_ID)).thenReturn(true);
+        change(false);
+        broadcaster.flush();
+
+        change(true);
+        broadcaster.flush();
+
+        verify(messagingTemplate, times(2)).convertAndSendToUsers(
+                eq(Set.of(PEER_ID)), eq(PresenceBroadcaster.PRESENCE_DESTINATION), any(PresenceResponse.class));
+    }
+
+    @Test
+    void offlinePeersAreSkipped() {
+        when(onlineUserService.onlineAmong(Set.of(PEER_ID))).thenReturn(Set.of());
+
+        change(true);
+        broadcaster.flush();
+
+        verify(messagingTemplate).convertAndSendToUsers(
+                eq(Set.of()), eq(PresenceBroadcaster.PRESENCE_DESTINATION), any(PresenceResponse.class));
+    }
+
+    @Test
+    void audienceIsResolvedWithOneBatchedLookup() {
+        Set<Long> audience = Set.of(8L, 9L, 10L, 11L);
+        when(audienceCache.getAudience(USER_ID)).thenReturn(audience);
+        when(onlineUserService.onlineAmong(audience)).thenReturn(Set.of(9L, 11L));
+
+        change(true);
+        broadcaster.flush();
+
+        verify(onlineUserService, times(1)).onlineAmong(audience);
+        verify(messagingTemplate, never()).isReachable(any());
+        verify(messagingTemplate).convertAndSendToUsers(
+                eq(Set.of(9L, 11L)), eq(PresenceBroadcaster.PRESENCE_DESTINATION), any(PresenceResponse.class));
+    }
+
+    private void change(boolean online) {
+        broadcaster.onPresenceChanged(new PresenceChangedEvent(USER_ID, online, LocalDateTime.now()));
+    }
+}
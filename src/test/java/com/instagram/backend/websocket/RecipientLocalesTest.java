@@ -0,0 +1,44 @@
+package com.instagram.backend.websocket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipientLocalesTest {
+
+    private RecipientLocales recipientLocales;
+
+    @BeforeEach
+    void setUp() {
+        recipientLocales = new RecipientLocales();
+        ReflectionTestUtils.setField(recipientLocales, "maxSize", 2);
+    }
+
+    @Test
+    void unknownRecipientGetsDefaultLocale() {
+        assertThat(recipientLocales.localeOf(1L)).isEqualTo(NotificationTextRenderer.DEFAULT_LOCALE);
+    }
+
+    @Test
+    void latestHandshakeLocaleWins() {
+        recipientLocales.remember(1L, Locale.FRENCH);
+        recipientLocales.remember(1L, Locale.GERMAN);
+
+        assertThat(recipientLocales.localeOf(1L)).isEqualTo(Locale.GERMAN);
+    }
+
+    @Test
+    void leastRecentlyUsedRecipientIsForgotten() {
+        recipientLocales.remember(1L, Locale.FRENCH);
+        recipientLocales.remember(2L, Locale.GERMAN);
+        recipientLocales.localeOf(1L);
+        recipientLocales.remember(3L, Locale.ITALIAN);
+
+        assertThat(recipientLocales.localeOf(1L)).isEqualTo(Locale.FRENCH);
+        assertThat(recipientLocales.localeOf(2L)).isEqualTo(NotificationTextRenderer.DEFAULT_LOCALE);
+    }
+}
@@ -0,0 +1,153 @@
+package com.instagram.backend.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.instagram.backend.dtos.response.ChatMessageResponseDTO;
+import com.instagram.backend.entity.enums.MessageStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.sockjs.transport.session.WebSocketServerSockJsSession;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pushes a payload through the codec and Spring's STOMP handler and decodes the frame exactly as a client
+ * receives it off the socket.
+ */
+class StompPayloadCodecTest {
+
+    private static final LocalDateTime SENT_AT = LocalDateTime.of(2026, 5, 4, 12, 30, 15);
+
+    private StompPayloadCodec codec;
+    private StompSubProtocolHandler stompHandler;
+
+    @BeforeEach
+    void setUp() {
+        codec = new StompPayloadCodec(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build(), new SimpleMeterRegistry());
+        stompHandler = new StompSubProtocolHandler();
+    }
+
+    @Test
+    void cborOnRawWebSocketArrivesAsIntactBinaryFrame() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        connect("raw-1", "cbor", true);
+
+        WebSocketMessage<?> sent = deliver(session, "raw-1");
+
+        assertThat(sent).isInstanceOf(BinaryMessage.class);
+        Message<byte[]> frame = decode(((BinaryMessage) sent).getPayload());
+        assertThat(StompHeaderAccessor.wrap(frame).getContentType()).isEqualTo(StompPayloadCodec.CBOR_FRAME_TYPE);
+
+        JsonNode payload = new ObjectMapper(new CBORFactory()).readTree(frame.getPayload());
+        assertThat(payload.get("id").asLong()).isEqualTo(99L);
+        assertThat(payload.get("content").asText()).isEqualTo("héllo 👋");
+        assertThat(payload.get("sentAt").asLong()).isEqualTo(SENT_AT.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    @Test
+    void cborRequestOverSockJsFallsBackToJsonText() throws Exception {
+        WebSocketServerSockJsSession session = mock(WebSocketServerSockJsSession.class);
+        connect("sockjs-1", "cbor", false);
+
+        WebSocketMessage<?> sent = deliver(session, "sockjs-1");
+
+        assertThat(sent).isInstanceOf(TextMessage.class);
+        Message<byte[]> frame = decode(ByteBuffer.wrap(((TextMessage) sent).asBytes()));
+        assertThat(StompHeaderAccessor.wrap(frame).getContentType().toString()).isEqualTo("application/json");
+
+        JsonNode payload = new ObjectMapper().readTree(frame.getPayload());
+        assertThat(payload.get("content").asText()).isEqualTo("héllo 👋");
+        assertThat(payload.get("sentAt").asText()).isEqualTo("2026-05-04T12:30:15");
+    }
+
+    @Test
+    void jsonSessionOnRawWebSocketGetsTextFrame() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        connect("raw-2", null, true);
+
+        WebSocketMessage<?> sent = deliver(session, "raw-2");
+
+        assertThat(sent).isInstanceOf(TextMessage.class);
+        Message<byte[]> frame = decode(ByteBuffer.wrap(((TextMessage) sent).asBytes()));
+        assertThat(new ObjectMapper().readTree(frame.getPayload()).get("content").asText()).isEqualTo("héllo 👋");
+    }
+
+    private void connect(String sessionId, String format, boolean binaryTransport) {
+        Map<String, Object> attributes = new HashMap<>();
+        if (binaryTransport) {
+            attributes.put(StompPayloadCodec.BINARY_TRANSPORT_ATTRIBUTE, true);
+        }
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setSessionAttributes(attributes);
+        if (format != null) {
+            accessor.addNativeHeader(StompPayloadCodec.FORMAT_HEADER, format);
+        }
+        codec.inboundInterceptor().preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), null);
+    }
+
+    private WebSocketMessage<?> deliver(WebSocketSession session, String sessionId) throws Exception {
+        when(session.getId()).thenReturn(sessionId);
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setSubscriptionId("sub-0");
+        headers.setDestination("/queue/chat/1");
+        headers.setLeaveMutable(true);
+        Message<?> brokerMessage = codec.deferredConverter().toMessage(message(), headers.getMessageHeaders());
+        Message<?> outbound = codec.outboundInterceptor().preSend(brokerMessage, null);
+
+        stompHandler.handleMessageToClient(session, outbound);
+
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session).sendMessage(captor.capture());
+        return captor.getValue();
+    }
+
+    private Message<byte[]> decode(ByteBuffer bytes) {
+        List<Message<byte[]>> frames = new StompDecoder().decode(bytes);
+        assertThat(frames).hasSize(1);
+        return frames.get(0);
+    }
+
+    private ChatMessageResponseDTO message() {
+        return ChatMessageResponseDTO.builder()
+                .id(99L)
+                .chatRoomId(1L)
+                .senderId(2L)
+                .receiverId(3L)
+                .content("héllo 👋")
+                .sentAt(SENT_AT)
+                .status(MessageStatus.SENT)
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.instagram.backend.websocket;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.instagram.backend.dtos.response.NotificationReplayResponse;
+import com.instagram.backend.dtos.response.NotificationResponse;
+import com.instagram.backend.entity.enums.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbound encode path for JSON and CBOR on a replay frame of 50 notifications. The size comparison is a plain
+ * unit test; the CPU-per-payload microbenchmark is benchmark-tagged (run with -Pbenchmark) and only logs.
+ */
+@Slf4j
+class StompPayloadEncodingBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 50_000;
+
+    private final StompPayloadCodec codec = new StompPayloadCodec(Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build(), new SimpleMeterRegistry());
+    private final MessageConverter converter = codec.deferredConverter();
+    private final ChannelInterceptor outbound = codec.outboundInterceptor();
+
+    @BeforeEach
+    void connectSessions() {
+        connect("json-session", null);
+        connect("cbor-session", "cbor");
+    }
+
+    @Test
+    void cborFrameIsSmallerThanJson() {
+        NotificationReplayResponse payload = replayFrame();
+
+        assertThat(encode(payload, "cbor-session").length).isLessThan(encode(payload, "json-session").length);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void reportsEncodeCost() {
+        NotificationReplayResponse payload = replayFrame();
+        int jsonBytes = encode(payload, "json-session").length;
+        int cborBytes = encode(payload, "cbor-session").length;
+
+        double jsonNanos = nanosPerEncode(payload, "json-session");
+        double cborNanos = nanosPerEncode(payload, "cbor-session");
+
+        log.info("JSON: {} bytes, {} ns/encode", jsonBytes, String.format("%.0f", jsonNanos));
+        log.info("CBOR: {} bytes ({}% of JSON), {} ns/encode ({}% of JSON)", cborBytes,
+                String.format("%.0f", 100.0 * cborBytes / jsonBytes), String.format("%.0f", cborNanos),
+                String.format("%.0f", 100.0 * cborNanos / jsonNanos));
+    }
+
+    private double nanosPerEncode(Object payload, String sessionId) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += encode(payload, sessionId).length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += encode(payload, sessionId).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        // Consumed so the encodes cannot be optimized away
+        log.debug("Encoded {} bytes", sink);
+        return (double) elapsed / MEASURED_ITERATIONS;
+    }
+
+    // Fresh broker message each time, so every iteration pays the full encode like a real push
+    private byte[] encode(Object payload, String sessionId) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        Message<?> message = converter.toMessage(payload, headers.getMessageHeaders());
+        return (byte[]) outbound.preSend(message, null).getPayload();
+    }
+
+    private void connect(String sessionId, String format) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(StompPayloadCodec.BINARY_TRANSPORT_ATTRIBUTE, true);
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setSessionAttributes(attributes);
+        if (format != null) {
+            accessor.addNativeHeader(StompPayloadCodec.FORMAT_HEADER, format);
+        }
+        codec.inboundInterceptor().preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), null);
+    }
+
+    private NotificationReplayResponse replayFrame() {
+        LocalDateTime now = LocalDateTime.of(2026, 5, 4, 12, 0);
+        List<NotificationResponse> notifications = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            notifications.add(NotificationResponse.builder()
+                    .id(1_000_000L + i)
+                    .senderId(4_000L + i)
+                    .senderUsername("user_" + i)
+                    .message("user_" + i + " and 3 others liked your post")
+                    .type(NotificationType.values()[i % NotificationType.values().length])
+                    .createdAt(now.minusMinutes(i))
+                    .isRead(i % 3 == 0)
+                    .targetId(77_000L + i)
+                    .actorCount(4)
+                    .latestActors(List.of("user_" + i, "friend_a", "friend_b"))
+                    .build());
+        }
+        return NotificationReplayResponse.builder()
+                .notifications(notifications)
+                .truncated(false)
+                .unreadCount(12)
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.instagram.backend.websocket;
+
+import com.instagram.backend.repository.NotificationRepository;
+import com.instagram.backend.repository.UserRepository;
+import com.instagram.backend.repository.projection.UnreadSeed;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UnreadCountTrackerTest {
+
+    private static final LocalDateTime READ_UNTIL = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private NotificationRepository notificationRepository;
+    private UserRepository userRepository;
+    private UnreadCountTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        userRepository = mock(UserRepository.class);
+        NotificationPartitionManager partitionManager = mock(NotificationPartitionManager.class);
+        ClusterMessagingTemplate messagingTemplate = mock(ClusterMessagingTemplate.class);
+        tracker = new UnreadCountTracker(notificationRepository, userRepository, messagingTemplate, partitionManager);
+        ReflectionTestUtils.setField(tracker, "maxTrackedUsers", 2);
+
+        when(userRepository.findNotificationsReadUntilById(anyLong())).thenReturn(Optional.of(READ_UNTIL));
+        when(notificationRepository.seedUnreadCount(anyLong(), any())).thenReturn(seed(5, 100));
+    }
+
+    @Test
+    void seedsOnceAndAppliesIncrementsOnTop() {
+        assertThat(tracker.getUnreadCount(1L)).isEqualTo(5);
+
+        tracker.added(1L, List.of(inserted(101, READ_UNTIL.plusMinutes(1)), inserted(102, READ_UNTIL.plusMinutes(2))));
+
+        assertThat(tracker.getUnreadCount(1L)).isEqualTo(7);
+        verify(notificationRepository, times(1)).seedUnreadCount(eq(1L), any());
+    }
+
+    @Test
+    void notificationsAtOrBeforeWatermarkAreNotCounted() {
+        tracker.getUnreadCount(1L);
+        LocalDateTime markedAt = READ_UNTIL.plusHours(1);
+        tracker.markedAllRead(1L, markedAt);
+
+        tracker.added(1L, List.of(inserted(101, markedAt.minusSeconds(1)), inserted(102, markedAt),
+                inserted(103, markedAt.plusSeconds(1))));
+
+        assertThat(tracker.getUnreadCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void leastRecentlyUsedCounterIsEvictedAtCapacity() {
+        tracker.getUnreadCount(1L);
+        tracker.getUnreadCount(2L);
+        tracker.getUnreadCount(1L);
+        tracker.getUnreadCount(3L);
+
+        tracker.getUnreadCount(1L);
+        tracker.getUnreadCount(2L);
+
+        verify(notificationRepository, times(1)).seedUnreadCount(eq(1L), any());
+        verify(notificationRepository, times(2)).seedUnreadCount(eq(2L), any());
+    }
+
+    @Test
+    void notificationsAlreadyVisibleToTheSeedAreNotCountedTwice() {
+        // Seeded between the batch insert committing (ids 99, 100) and the dispatcher reporting it
+        assertThat(tracker.getUnreadCount(1L)).isEqualTo(5);
+
+        tracker.added(1L, List.of(inserted(99, READ_UNTIL.plusMinutes(1)), inserted(100, READ_UNTIL.plusMinutes(1))));
+        assertThat(tracker.getUnreadCount(1L)).isEqualTo(5);
+
+        tracker.added(1L, List.of(inserted(101, READ_UNTIL.plusMinutes(2))));
+        assertThat(tracker.getUnreadCount(1L)).isEqualTo(6);
+    }
+
+    private static UnreadCountTracker.InsertedNotification inserted(long id, LocalDateTime createdAt) {
+        return new UnreadCountTracker.InsertedNotification(id, createdAt);
+    }
+
+    private static UnreadSeed seed(long unread, long highWaterId) {
+        return new UnreadSeed() {
+            @Override
+            public long getUnread() {
+                return unread;
+            }
+
+            @Override
+            public long getHighWaterId() {
+                return highWaterId;
+            }
+        };
+    }
+}